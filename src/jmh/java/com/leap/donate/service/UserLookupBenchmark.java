@@ -0,0 +1,83 @@
+package com.leap.donate.service;
+
+import com.slack.api.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Member lookup by ID and username: the stream scan over a users.list result that
+ * SlackServiceImpl used to do, against the hash index kept by {@link SlackUserDirectory}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserLookupBenchmark {
+
+    @Param({"100", "4000", "20000"})
+    public int users;
+
+    private List<User> members;
+    private Map<String, User> byId;
+    private Map<String, User> byName;
+    private String[] ids;
+    private String[] names;
+
+    @Setup
+    public void setUp() {
+        members = new ArrayList<>(users);
+        byId = new HashMap<>();
+        byName = new HashMap<>();
+        ids = new String[users];
+        names = new String[users];
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId(String.format("U%08d", i));
+            user.setName("user" + i);
+            members.add(user);
+            ids[i] = user.getId();
+            names[i] = user.getName();
+            byId.put(user.getId(), user);
+            byName.put(user.getName(), user);
+        }
+    }
+
+    @Benchmark
+    public Optional<User> scanById() {
+        String userId = ids[ThreadLocalRandom.current().nextInt(users)];
+        return members.stream()
+                .filter(u -> u.getId().equals(userId))
+                .findFirst();
+    }
+
+    @Benchmark
+    public Optional<User> scanByUsername() {
+        String username = names[ThreadLocalRandom.current().nextInt(users)];
+        return members.stream()
+                .filter(u -> u.getName().equals(username))
+                .findFirst();
+    }
+
+    @Benchmark
+    public User indexById() {
+        return byId.get(ids[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    public User indexByUsername() {
+        return byName.get(names[ThreadLocalRandom.current().nextInt(users)]);
+    }
+}
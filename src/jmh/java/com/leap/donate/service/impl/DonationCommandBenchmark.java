@@ -0,0 +1,38 @@
+package com.leap.donate.service.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of /i-want-to-give command text.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DonationCommandBenchmark {
+
+    @Param({
+            "@jane.doe 5 thanks for the review",
+            "<@U024BE7LH|jane.doe> 5 thanks for the review",
+            "@jane.doe <@U024BE7LH|john> @ann-lee @bob_k 2 thanks for the launch, team",
+            "  @john-smith   10   great job shipping the release on time, really appreciated  ",
+            "@nobody lots of coins"
+    })
+    public String text;
+
+    @Benchmark
+    public Object parse() {
+        try {
+            return DonateServiceImpl.parseDonationCommand(text);
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
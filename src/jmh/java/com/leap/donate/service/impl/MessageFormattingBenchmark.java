@@ -0,0 +1,52 @@
+package com.leap.donate.service.impl;
+
+import com.leap.donate.model.User;
+import com.leap.donate.service.Leaderboard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formatting of the /top-ten and /mine responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageFormattingBenchmark {
+
+    private final YearMonth yearMonth = YearMonth.of(2024, 3);
+    private List<Leaderboard.Entry> topTen;
+
+    @Setup
+    public void setUp() {
+        topTen = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = User.builder()
+                    .id("user-" + i)
+                    .username("user" + i)
+                    .realName(i % 2 == 0 ? "Team Member " + i : null)
+                    .status(User.UserStatus.ACTIVE)
+                    .build();
+            topTen.add(new Leaderboard.Entry(user, 100 - i * 7));
+        }
+    }
+
+    @Benchmark
+    public String topTen() {
+        return DonateServiceImpl.formatTopTen(yearMonth, topTen);
+    }
+
+    @Benchmark
+    public String userInfo() {
+        return DonateServiceImpl.formatUserInfo(42, 17, 50);
+    }
+}
@@ -0,0 +1,47 @@
+package com.leap.donate.service.utils;
+
+import com.slack.api.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization cost of {@link JsonUtils#toJson} for Slack member lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JsonUtilsBenchmark {
+
+    @Param({"1", "100", "4000"})
+    public int users;
+
+    private List<User> members;
+
+    @Setup
+    public void setUp() {
+        members = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId(String.format("U%08d", i));
+            user.setName("user" + i);
+            user.setRealName("Team Member " + i);
+            user.setTz("Asia/Ho_Chi_Minh");
+            members.add(user);
+        }
+    }
+
+    @Benchmark
+    public String toJson() {
+        return JsonUtils.toJson(members);
+    }
+}
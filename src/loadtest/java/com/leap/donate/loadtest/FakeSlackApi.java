@@ -0,0 +1,201 @@
+package com.leap.donate.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Local stand-in for the Slack Web API. Serves the methods the app calls with a fixed
+ * workspace of generated users and one donate channel, with configurable latency and
+ * a configurable share of HTTP 429 responses. Also accepts response_url posts.
+ */
+public class FakeSlackApi {
+
+    static final String CHANNEL_ID = "C0DONATE01";
+
+    private final int userCount;
+    private final String channelName;
+    private final long latencyMs;
+    private final double rateLimitRatio;
+
+    private final Map<String, AtomicLong> calls = new ConcurrentHashMap<>();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private HttpServer server;
+    private Consumer<String> responseListener = id -> { };
+
+    public FakeSlackApi(int userCount, String channelName, long latencyMs, double rateLimitRatio) {
+        this.userCount = userCount;
+        this.channelName = channelName;
+        this.latencyMs = latencyMs;
+        this.rateLimitRatio = rateLimitRatio;
+    }
+
+    public static String userId(int index) {
+        return String.format("U%08d", index);
+    }
+
+    public static String userName(int index) {
+        return "loaduser" + index;
+    }
+
+    public int start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/", this::handleMethod);
+        server.createContext("/response/", this::handleResponseUrl);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public void onResponse(Consumer<String> listener) {
+        this.responseListener = listener;
+    }
+
+    public long totalCalls() {
+        return calls.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public Map<String, Long> callsByMethod() {
+        Map<String, Long> snapshot = new TreeMap<>();
+        calls.forEach((method, count) -> snapshot.put(method, count.get()));
+        return snapshot;
+    }
+
+    public long rateLimitedCalls() {
+        return rateLimited.get();
+    }
+
+    private void handleMethod(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestURI().getPath().substring("/api/".length());
+        Map<String, String> params = parseForm(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        calls.computeIfAbsent(method, m -> new AtomicLong()).incrementAndGet();
+
+        sleep(latencyMs);
+        if (rateLimitRatio > 0 && ThreadLocalRandom.current().nextDouble() < rateLimitRatio) {
+            rateLimited.incrementAndGet();
+            exchange.getResponseHeaders().add("Retry-After", "1");
+            send(exchange, 429, "{\"ok\":false,\"error\":\"ratelimited\"}");
+            return;
+        }
+
+        switch (method) {
+            case "users.list":
+                send(exchange, 200, usersList(params));
+                break;
+            case "users.info":
+                send(exchange, 200, "{\"ok\":true,\"user\":" + userJson(indexOf(params.get("user"))) + "}");
+                break;
+            case "conversations.list":
+                send(exchange, 200, "{\"ok\":true,\"channels\":[{\"id\":\"" + CHANNEL_ID + "\",\"name\":\""
+                        + channelName + "\",\"is_channel\":true}],\"response_metadata\":{\"next_cursor\":\"\"}}");
+                break;
+            case "conversations.members":
+                send(exchange, 200, membersList());
+                break;
+            case "conversations.invite":
+            case "conversations.create":
+                send(exchange, 200, "{\"ok\":true,\"channel\":{\"id\":\"" + CHANNEL_ID + "\",\"name\":\"" + channelName + "\"}}");
+                break;
+            case "chat.postMessage":
+                send(exchange, 200, "{\"ok\":true,\"channel\":\"" + CHANNEL_ID + "\",\"ts\":\"" + System.currentTimeMillis() / 1000.0 + "\"}");
+                break;
+            default:
+                send(exchange, 200, "{\"ok\":false,\"error\":\"unknown_method\"}");
+                break;
+        }
+    }
+
+    private void handleResponseUrl(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        calls.computeIfAbsent("response_url", m -> new AtomicLong()).incrementAndGet();
+        responseListener.accept(exchange.getRequestURI().getPath().substring("/response/".length()));
+        send(exchange, 200, "ok");
+    }
+
+    private String usersList(Map<String, String> params) {
+        int limit = params.containsKey("limit") ? Integer.parseInt(params.get("limit")) : userCount;
+        int start = params.containsKey("cursor") && !params.get("cursor").isEmpty() ? Integer.parseInt(params.get("cursor")) : 0;
+        int end = Math.min(start + Math.max(limit, 1), userCount);
+
+        StringBuilder json = new StringBuilder("{\"ok\":true,\"members\":[");
+        for (int i = start; i < end; i++) {
+            if (i > start) {
+                json.append(',');
+            }
+            json.append(userJson(i));
+        }
+        String nextCursor = end < userCount ? String.valueOf(end) : "";
+        return json.append("],\"response_metadata\":{\"next_cursor\":\"").append(nextCursor).append("\"}}").toString();
+    }
+
+    private String membersList() {
+        StringBuilder json = new StringBuilder("{\"ok\":true,\"members\":[");
+        for (int i = 0; i < userCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append('"').append(userId(i)).append('"');
+        }
+        return json.append("],\"response_metadata\":{\"next_cursor\":\"\"}}").toString();
+    }
+
+    private static String userJson(int index) {
+        return "{\"id\":\"" + userId(index) + "\",\"name\":\"" + userName(index) + "\",\"real_name\":\"Load User "
+                + index + "\",\"is_bot\":false,\"deleted\":false}";
+    }
+
+    private static int indexOf(String userId) {
+        return userId == null ? 0 : Integer.parseInt(userId.substring(1));
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        Map<String, String> params = new HashMap<>();
+        for (String pair : body.split("&")) {
+            int separator = pair.indexOf('=');
+            if (separator > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
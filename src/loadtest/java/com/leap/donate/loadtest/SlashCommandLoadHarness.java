@@ -0,0 +1,277 @@
+package com.leap.donate.loadtest;
+
+import com.leap.donate.DonateApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays form-encoded slash commands against /api/slack/commands at a fixed rate, with the
+ * app started in-process against {@link FakeSlackApi}. The database comes from the usual
+ * JDBC_DATABASE_* environment. Options are system properties prefixed with {@code loadtest.}:
+ * <ul>
+ *   <li>rate (commands/second, default 20), duration (seconds, default 60)</li>
+ *   <li>users (fake workspace size, default 500)</li>
+ *   <li>slack-latency-ms (default 100), slack-429-ratio (default 0.0)</li>
+ *   <li>mix (default give:60,mine:30,top:10)</li>
+ *   <li>commands (file of form-encoded request bodies, one per line, replayed instead of the mix)</li>
+ *   <li>async (sets app.slash-commands.async-enabled, default false)</li>
+ * </ul>
+ */
+public class SlashCommandLoadHarness {
+
+    private static final String CHANNEL_NAME = "loadtest-donate";
+
+    private final ConcurrentLinkedQueue<Long> ackLatenciesNs = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> completionLatenciesNs = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> pendingResponses = new ConcurrentHashMap<>();
+    private final AtomicLong httpErrors = new AtomicLong();
+    private final AtomicLong appErrors = new AtomicLong();
+    private final AtomicLong transportErrors = new AtomicLong();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        new SlashCommandLoadHarness().run();
+    }
+
+    private void run() throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 20);
+        int durationSeconds = Integer.getInteger("loadtest.duration", 60);
+        int users = Integer.getInteger("loadtest.users", 500);
+        long slackLatencyMs = Long.getLong("loadtest.slack-latency-ms", 100);
+        double rateLimitRatio = Double.parseDouble(System.getProperty("loadtest.slack-429-ratio", "0.0"));
+        boolean async = Boolean.getBoolean("loadtest.async");
+        List<String> replay = loadReplay(System.getProperty("loadtest.commands"));
+        int[] mix = parseMix(System.getProperty("loadtest.mix", "give:60,mine:30,top:10"));
+
+        FakeSlackApi slack = new FakeSlackApi(users, CHANNEL_NAME, slackLatencyMs, rateLimitRatio);
+        int slackPort = slack.start();
+        slack.onResponse(id -> {
+            Long sentAt = pendingResponses.remove(id);
+            if (sentAt != null) {
+                completionLatenciesNs.add(System.nanoTime() - sentAt);
+            }
+        });
+
+        int appPort = freePort();
+        ConfigurableApplicationContext app = SpringApplication.run(DonateApplication.class,
+                "--server.port=" + appPort,
+                "--slack.api-url=http://localhost:" + slackPort + "/api/",
+                "--slack.bot-token=xoxb-loadtest",
+                "--slack.signing-secret=loadtest",
+                "--slack.donate-channel-name=" + CHANNEL_NAME,
+                "--app.slash-commands.async-enabled=" + async);
+
+        try {
+            // Wait for the Slack warm-up so it is not counted against the first commands
+            awaitReady(appPort);
+            long slackCallsBefore = slack.totalCalls();
+            String slackBase = "http://localhost:" + slackPort;
+            URI target = URI.create("http://localhost:" + appPort + "/api/slack/commands");
+
+            int total = rate * durationSeconds;
+            System.out.printf("Replaying %d commands at %d/s against %s (Slack latency %dms, 429 ratio %.2f, async %s)%n",
+                    total, rate, target, slackLatencyMs, rateLimitRatio, async);
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            CountDownLatch done = new CountDownLatch(total);
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+            AtomicInteger sent = new AtomicInteger();
+            long startedAt = System.nanoTime();
+            scheduler.scheduleAtFixedRate(() -> {
+                int n = sent.getAndIncrement();
+                if (n >= total) {
+                    return;
+                }
+                String id = String.valueOf(sequence.incrementAndGet());
+                String body = (replay.isEmpty() ? generate(users, mix) : replay.get(n % replay.size()))
+                        + "&response_url=" + encode(slackBase + "/response/" + id);
+                fire(client, target, id, body, done);
+            }, 0, TimeUnit.SECONDS.toNanos(1) / rate, TimeUnit.NANOSECONDS);
+
+            done.await(durationSeconds + 60L, TimeUnit.SECONDS);
+            scheduler.shutdownNow();
+            if (async) {
+                // Give queued commands a chance to post their results
+                long deadline = System.currentTimeMillis() + 30_000;
+                while (!pendingResponses.isEmpty() && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(200);
+                }
+            }
+            double elapsedSeconds = (System.nanoTime() - startedAt) / 1e9;
+            report(total, elapsedSeconds, async, slack, slack.totalCalls() - slackCallsBefore);
+        } finally {
+            app.close();
+            slack.stop();
+        }
+    }
+
+    private static void awaitReady(int appPort) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + appPort + "/actuator/health/readiness")).build();
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                // Give the background channel sync a moment so its calls are not counted
+                Thread.sleep(1000);
+                return;
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("App did not become ready within 60s");
+    }
+
+    private void fire(HttpClient client, URI target, String id, String body, CountDownLatch done) {
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        long sentAt = System.nanoTime();
+        pendingResponses.put(id, sentAt);
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            long latency = System.nanoTime() - sentAt;
+            if (error != null) {
+                transportErrors.incrementAndGet();
+                pendingResponses.remove(id);
+            } else {
+                ackLatenciesNs.add(latency);
+                if (response.statusCode() != 200) {
+                    httpErrors.incrementAndGet();
+                    pendingResponses.remove(id);
+                } else if (!response.body().isEmpty()) {
+                    // Answered inline, so there is no response_url post to wait for
+                    pendingResponses.remove(id);
+                    completionLatenciesNs.add(latency);
+                    if (response.body().contains(":x:")) {
+                        appErrors.incrementAndGet();
+                    }
+                }
+            }
+            done.countDown();
+        });
+    }
+
+    private void report(int total, double elapsedSeconds, boolean async, FakeSlackApi slack, long slackCalls) {
+        System.out.println();
+        System.out.printf("Commands sent:        %d in %.1fs (%.1f/s)%n", total, elapsedSeconds, total / elapsedSeconds);
+        System.out.printf("HTTP response:        %s%n", percentiles(ackLatenciesNs));
+        if (async) {
+            System.out.printf("Result delivered:     %s (%d never delivered)%n", percentiles(completionLatenciesNs), pendingResponses.size());
+        }
+        System.out.printf("Transport errors:     %d (%.2f%%)%n", transportErrors.get(), 100.0 * transportErrors.get() / total);
+        System.out.printf("HTTP errors:          %d (%.2f%%)%n", httpErrors.get(), 100.0 * httpErrors.get() / total);
+        System.out.printf("App error responses:  %d (%.2f%%)%s%n", appErrors.get(), 100.0 * appErrors.get() / total,
+                async ? " (inline responses only)" : "");
+        System.out.printf("Slack calls/command:  %.2f (%d calls, %d answered with 429)%n",
+                (double) slackCalls / total, slackCalls, slack.rateLimitedCalls());
+        slack.callsByMethod().forEach((method, count) -> System.out.printf("  %-24s %d%n", method, count));
+    }
+
+    private static String percentiles(ConcurrentLinkedQueue<Long> samplesNs) {
+        List<Long> sorted = new ArrayList<>(samplesNs);
+        if (sorted.isEmpty()) {
+            return "no samples";
+        }
+        Collections.sort(sorted);
+        return String.format("p50 %.1fms  p95 %.1fms  p99 %.1fms  max %.1fms",
+                percentile(sorted, 0.50), percentile(sorted, 0.95), percentile(sorted, 0.99),
+                sorted.get(sorted.size() - 1) / 1e6);
+    }
+
+    private static double percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1e6;
+    }
+
+    private static String generate(int users, int[] mix) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int sender = random.nextInt(users);
+        int roll = random.nextInt(mix[0] + mix[1] + mix[2]);
+        String command;
+        String text = "";
+        if (roll < mix[0]) {
+            int recipient = (sender + 1 + random.nextInt(users - 1)) % users;
+            command = "/i-want-to-give";
+            text = "@" + FakeSlackApi.userName(recipient) + " 1 thanks for the help";
+        } else if (roll < mix[0] + mix[1]) {
+            command = "/mine";
+        } else {
+            command = "/top-ten";
+        }
+        return "command=" + encode(command)
+                + "&user_id=" + FakeSlackApi.userId(sender)
+                + "&channel_id=" + FakeSlackApi.CHANNEL_ID
+                + "&text=" + encode(text);
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[3];
+        for (String part : mix.split(",")) {
+            String[] entry = part.trim().split(":");
+            int weight = Integer.parseInt(entry[1].trim());
+            switch (entry[0].trim()) {
+                case "give":
+                    weights[0] = weight;
+                    break;
+                case "mine":
+                    weights[1] = weight;
+                    break;
+                case "top":
+                    weights[2] = weight;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown command in mix: " + entry[0]);
+            }
+        }
+        return weights;
+    }
+
+    private static List<String> loadReplay(String path) throws IOException {
+        if (path == null || path.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(path))) {
+            if (!line.isBlank() && !line.startsWith("#")) {
+                lines.add(line.trim());
+            }
+        }
+        return lines;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
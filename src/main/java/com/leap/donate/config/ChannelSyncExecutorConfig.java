@@ -0,0 +1,29 @@
+package com.leap.donate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ChannelSyncExecutorConfig {
+
+    @Value("${app.channel-sync.invite-concurrency:2}")
+    private int inviteConcurrency;
+
+    /**
+     * Shared pool for the donate channel sync's conversations.invite calls, so concurrent
+     * syncs together never have more than {@code invite-concurrency} calls in flight.
+     * Shut down with the application context.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor channelInviteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(inviteConcurrency);
+        executor.setMaxPoolSize(inviteConcurrency);
+        executor.setThreadNamePrefix("channel-invite-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,64 @@
+package com.leap.donate.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+public class DataSourceProxyConfig {
+
+    /**
+     * Wraps every DataSource in a datasource-proxy that reports executed statements to
+     * {@link SqlStatementMonitor}. Statements run before the monitor exists, such as
+     * migrations, are not reported.
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor() {
+        return new DataSourceProxyPostProcessor();
+    }
+
+    private static final class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+        private final MonitorListener listener = new MonitorListener();
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof SqlStatementMonitor) {
+                listener.monitor = (SqlStatementMonitor) bean;
+            }
+            if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name(beanName)
+                        .listener(listener)
+                        .build();
+            }
+            return bean;
+        }
+    }
+
+    // Looking the monitor up from the proxy would create it, and the meter registry, while the DataSource is still being set up
+    private static final class MonitorListener implements QueryExecutionListener {
+
+        private volatile SqlStatementMonitor monitor;
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            SqlStatementMonitor target = monitor;
+            if (target != null) {
+                target.afterQuery(execInfo, queryInfoList);
+            }
+        }
+    }
+}
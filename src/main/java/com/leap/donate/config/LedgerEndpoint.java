@@ -0,0 +1,38 @@
+package com.leap.donate.config;
+
+import com.leap.donate.service.ScoreService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Admin-only {@code POST /actuator/ledger} that recomputes a month's current_scores and
+ * remaining_points from the transactions ledger, e.g. {@code {"month": "2026-10"}}.
+ * Without a month the current one is rebuilt.
+ */
+@Component
+@Endpoint(id = "ledger")
+@RequiredArgsConstructor
+public class LedgerEndpoint {
+
+    private final ScoreService scoreService;
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable String month) {
+        YearMonth yearMonth = month != null ? YearMonth.parse(month) : YearMonth.now();
+        long startedAt = System.currentTimeMillis();
+        int changed = scoreService.rebuildBalances(yearMonth);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("month", yearMonth.toString());
+        result.put("rowsChanged", changed);
+        result.put("durationMs", System.currentTimeMillis() - startedAt);
+        return result;
+    }
+}
@@ -1,14 +1,11 @@
 package com.leap.donate.config;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
-import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-
-import java.time.Duration;
+import org.springframework.core.Ordered;
 
 @Configuration
 public class RateLimiterConfig {
@@ -16,12 +13,16 @@ public class RateLimiterConfig {
     @Value("${app.rate-limit.requests-per-minute}")
     private int requestsPerMinute;
 
+    @Value("${app.rate-limit.max-tracked-keys:10000}")
+    private int maxTrackedKeys;
+
     @Bean
-    public Bucket createNewBucket() {
-        // Allow 10 requests per minute
-        Bandwidth limit = Bandwidth.simple(requestsPerMinute, Duration.ofMinutes(1));
-        return Bucket.builder()
-            .addLimit(limit)
-            .build();
+    public FilterRegistrationBean<SlashCommandRateLimitFilter> slashCommandRateLimitFilter(MeterRegistry meterRegistry) {
+        // Each user gets requestsPerMinute per command
+        FilterRegistrationBean<SlashCommandRateLimitFilter> registration = new FilterRegistrationBean<>(
+                new SlashCommandRateLimitFilter(requestsPerMinute, maxTrackedKeys, meterRegistry));
+        registration.addUrlPatterns("/api/slack/commands");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
     }
-} 
\ No newline at end of file
+}
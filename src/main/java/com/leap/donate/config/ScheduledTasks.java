@@ -1,5 +1,6 @@
 package com.leap.donate.config;
 
+import com.leap.donate.service.JobLockService;
 import com.leap.donate.service.ScoreService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +8,8 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.time.YearMonth;
+
 @Configuration
 @EnableScheduling
 @RequiredArgsConstructor
@@ -14,14 +17,15 @@ import org.springframework.scheduling.annotation.Scheduled;
 public class ScheduledTasks {
 
     private final ScoreService scoreService;
+    private final JobLockService jobLockService;
 
     /**
      * Reset scores and remaining points at the beginning of each month.
-     * Runs at 00:00:00 on the 1st day of every month.
+     * Runs at 00:00:00 on the 1st day of every month, once per month across all instances.
      */
     @Scheduled(cron = "${app.reset-cron}")
     public void resetMonthlyScores() {
         log.info("Running scheduled task: resetMonthlyScores");
-        scoreService.resetMonthlyScores();
+        jobLockService.runOnce("monthly-reset", YearMonth.now().toString(), scoreService::resetMonthlyScores);
     }
 } 
\ No newline at end of file
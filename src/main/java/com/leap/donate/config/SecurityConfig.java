@@ -31,7 +31,10 @@ public class SecurityConfig {
                 .antMatchers("/api/slack/**").permitAll()
                 // Allow health check endpoints
                 .antMatchers("/actuator/health").permitAll()
+                .antMatchers("/actuator/health/**").permitAll()
                 .antMatchers("/actuator/info").permitAll()
+                // Rebuilding balances is an admin operation
+                .antMatchers("/actuator/ledger").hasRole("ADMIN")
                 // Secure all other endpoints
                 .anyRequest().authenticated()
             .and()
@@ -1,14 +1,24 @@
 package com.leap.donate.config;
 
 import com.slack.api.Slack;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class SlackClientConfig {
+
+    // Overrides https://slack.com/api/, e.g. to point the app at the load test's fake Slack API
+    @Value("${slack.api-url:}")
+    private String apiUrl;
     
     @Bean
     public Slack slackClient() {
-        return Slack.getInstance();
+        if (apiUrl.isEmpty()) {
+            return Slack.getInstance();
+        }
+        com.slack.api.SlackConfig config = new com.slack.api.SlackConfig();
+        config.setMethodsEndpointUrlPrefix(apiUrl.endsWith("/") ? apiUrl : apiUrl + "/");
+        return Slack.getInstance(config);
     }
-} 
\ No newline at end of file
+} 
@@ -1,11 +1,18 @@
 package com.leap.donate.config;
 
+import com.leap.donate.service.SlackApiClient;
 import com.leap.donate.service.SlackService;
+import com.leap.donate.service.SlackUserDirectory;
+import com.leap.donate.service.UserService;
 import com.slack.api.Slack;
 import com.slack.api.bolt.App;
 import com.slack.api.bolt.AppConfig;
-import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.Methods;
+import com.slack.api.model.event.ChannelArchiveEvent;
+import com.slack.api.model.event.ChannelDeletedEvent;
+import com.slack.api.model.event.ChannelRenameEvent;
 import com.slack.api.model.event.TeamJoinEvent;
+import com.slack.api.model.event.UserChangeEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -27,10 +34,15 @@ public class SlackConfig {
     private String signingSecret;
     
     private final SlackService slackService;
+    private final SlackUserDirectory slackUserDirectory;
+    private final SlackApiClient slackApiClient;
+    private final UserService userService;
+    private final Slack slack;
 
     @Bean
     public App slackApp() {
         AppConfig appConfig = AppConfig.builder()
+                .slack(slack)
                 .singleTeamBotToken(botToken)
                 .signingSecret(signingSecret)
                 .build();
@@ -43,14 +55,15 @@ public class SlackConfig {
                 // Get the new user
                 com.slack.api.model.User newUser = payload.getEvent().getUser();
                 log.info("New user joined: {}", newUser.getName());
+                slackUserDirectory.upsert(newUser);
                 
                 // Get the donate channel ID
                 String donateChannelId = slackService.createOrGetDonateChannel();
                 
                 // Invite the new user to the channel
-                ctx.client().conversationsInvite(r -> r
+                slackApiClient.call(Methods.CONVERSATIONS_INVITE, methods -> methods.conversationsInvite(r -> r
                         .channel(donateChannelId)
-                        .users(List.of(newUser.getId())));
+                        .users(List.of(newUser.getId()))));
                 
                 log.info("Added new user {} to donate channel", newUser.getName());
                 
@@ -61,6 +74,35 @@ public class SlackConfig {
             }
         });
         
+        // Keep the user directory, the cached users and the leaderboard in sync with profile changes
+        app.event(UserChangeEvent.class, (payload, ctx) -> {
+            com.slack.api.model.User changedUser = payload.getEvent().getUser();
+            log.debug("User changed: {}", changedUser.getId());
+            slackUserDirectory.upsert(changedUser);
+            try {
+                userService.updateFromSlackProfile(changedUser.getId(), changedUser.getName(),
+                        changedUser.getRealName(), changedUser.isDeleted());
+            } catch (Exception e) {
+                // The cache entry is already evicted, so the next command reloads the user
+                log.error("Error applying profile change for user {}", changedUser.getId(), e);
+            }
+            return ctx.ack();
+        });
+        
+        // Drop the cached donate channel ID when the channel stops being usable under its name
+        app.event(ChannelRenameEvent.class, (payload, ctx) -> {
+            slackService.evictDonateChannel(payload.getEvent().getChannel().getId());
+            return ctx.ack();
+        });
+        app.event(ChannelDeletedEvent.class, (payload, ctx) -> {
+            slackService.evictDonateChannel(payload.getEvent().getChannel());
+            return ctx.ack();
+        });
+        app.event(ChannelArchiveEvent.class, (payload, ctx) -> {
+            slackService.evictDonateChannel(payload.getEvent().getChannel());
+            return ctx.ack();
+        });
+        
         return app;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.leap.donate.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class SlashCommandExecutorConfig {
+
+    @Value("${app.slash-commands.pool-size:8}")
+    private int poolSize;
+
+    @Value("${app.slash-commands.queue-capacity:200}")
+    private int queueCapacity;
+
+    /**
+     * Bounded pool that finishes acknowledged slash commands in the background.
+     * Commands beyond the queue capacity are rejected instead of piling up.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor slashCommandExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("slash-command-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+
+        Gauge.builder("slack.commands.queue.depth", executor,
+                        e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Slash commands waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("slack.commands.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Slash commands currently executing")
+                .register(meterRegistry);
+        return executor;
+    }
+}
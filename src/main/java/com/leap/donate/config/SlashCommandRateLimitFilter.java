@@ -0,0 +1,84 @@
+package com.leap.donate.config;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user, per-command token buckets in front of the slash command endpoint.
+ * Rejected requests are answered here without touching the database or Slack.
+ */
+@Slf4j
+public class SlashCommandRateLimitFilter extends OncePerRequestFilter {
+
+    private static final byte[] REJECTED_BODY = ("{\"response_type\":\"ephemeral\",\"text\":"
+            + "\":x: You are sending commands too quickly. Please wait a moment and try again.\"}")
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final int requestsPerMinute;
+    private final Map<String, Bucket> buckets;
+    private final Counter admitted;
+    private final Counter rejected;
+
+    public SlashCommandRateLimitFilter(int requestsPerMinute, int maxTrackedKeys, MeterRegistry meterRegistry) {
+        this.requestsPerMinute = requestsPerMinute;
+        // Least recently used keys are evicted once the map is full
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxTrackedKeys;
+            }
+        });
+        this.admitted = meterRegistry.counter("slack.commands.rate_limit", "outcome", "admitted");
+        this.rejected = meterRegistry.counter("slack.commands.rate_limit", "outcome", "rejected");
+        meterRegistry.gaugeMapSize("slack.commands.rate_limit.tracked_keys", Collections.emptyList(), buckets);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String userId = request.getParameter("user_id");
+        String command = request.getParameter("command");
+        if (userId == null || command == null) {
+            // Malformed requests are rejected by the controller
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Bucket bucket = buckets.computeIfAbsent(userId + ':' + command, key -> newBucket());
+        if (bucket.tryConsume(1)) {
+            admitted.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.increment();
+        log.debug("Rate limited {} from user {}", command, userId);
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTED_BODY.length);
+        response.getOutputStream().write(REJECTED_BODY);
+    }
+
+    private Bucket newBucket() {
+        return Bucket.builder()
+                .addLimit(Bandwidth.simple(requestsPerMinute, Duration.ofMinutes(1)))
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.leap.donate.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements each slash command executes, as seen by the proxied DataSource.
+ * Statements slower than {@code app.sql-monitor.slow-query-ms} are logged with their SQL (bind
+ * values are never logged), and a command that runs the same statement
+ * {@code app.sql-monitor.repeated-statement-threshold} times or more is reported as a likely N+1.
+ * Statements outside a command are tagged {@code background}.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SqlStatementMonitor implements QueryExecutionListener {
+
+    private static final String BACKGROUND = "background";
+    private static final int MAX_LOGGED_SQL_LENGTH = 500;
+
+    private static final ThreadLocal<CommandStatements> CURRENT = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.sql-monitor.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    @Value("${app.sql-monitor.repeated-statement-threshold:5}")
+    private int repeatedStatementThreshold;
+
+    /**
+     * Starts counting statements on this thread for the given command tag.
+     */
+    public void begin(String command) {
+        CURRENT.set(new CommandStatements(command));
+    }
+
+    /**
+     * Stops counting on this thread and records the command's totals.
+     */
+    public void finish() {
+        CommandStatements statements = CURRENT.get();
+        CURRENT.remove();
+        if (statements == null) {
+            return;
+        }
+
+        DistributionSummary.builder("sql.statements.per_command")
+                .description("SQL statements executed by one slash command")
+                .tag("command", statements.command)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statements.executions);
+        meterRegistry.timer("sql.time.per_command", "command", statements.command)
+                .record(statements.elapsedMs, TimeUnit.MILLISECONDS);
+
+        statements.bySql.forEach((sql, count) -> {
+            if (count >= repeatedStatementThreshold) {
+                meterRegistry.counter("sql.repeated", "command", statements.command).increment();
+                log.warn("Possible N+1 in {}: {} executions of {}", statements.command, count, abbreviate(sql));
+            }
+        });
+        log.debug("{} executed {} SQL statements in {}ms",
+                statements.command, statements.executions, statements.elapsedMs);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        CommandStatements statements = CURRENT.get();
+        String command = statements != null ? statements.command : BACKGROUND;
+        long elapsedMs = execInfo.getElapsedTime();
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+
+        meterRegistry.counter("sql.statements", "command", command).increment();
+        if (statements != null) {
+            statements.record(sql, elapsedMs);
+        }
+        if (elapsedMs >= slowQueryMs) {
+            meterRegistry.counter("sql.slow", "command", command).increment();
+            log.warn("Slow SQL in {} ({}ms{}): {}", command, elapsedMs,
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "", abbreviate(sql));
+        }
+    }
+
+    private static String abbreviate(String sql) {
+        return sql.length() > MAX_LOGGED_SQL_LENGTH ? sql.substring(0, MAX_LOGGED_SQL_LENGTH) + "..." : sql;
+    }
+
+    private static final class CommandStatements {
+        private final String command;
+        private final Map<String, Integer> bySql = new HashMap<>();
+        private int executions;
+        private long elapsedMs;
+
+        private CommandStatements(String command) {
+            this.command = command;
+        }
+
+        private void record(String sql, long elapsedMs) {
+            executions++;
+            this.elapsedMs += elapsedMs;
+            bySql.merge(sql, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.leap.donate.config;
+
+import com.leap.donate.service.SlackWarmUpService;
+import org.springframework.boot.actuate.availability.ReadinessStateHealthIndicator;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class WarmUpReadinessConfig {
+
+    /**
+     * Takes the place of Spring Boot's readiness indicator (it backs off for a bean with this
+     * name) and reports REFUSING_TRAFFIC until the Slack caches are warm. Boot's own readiness
+     * state is reported once they are, so a later REFUSING_TRAFFIC, e.g. on shutdown, still shows.
+     */
+    @Bean
+    public ReadinessStateHealthIndicator readinessStateHealthIndicator(ApplicationAvailability applicationAvailability,
+                                                                       SlackWarmUpService slackWarmUpService) {
+        return new ReadinessStateHealthIndicator(applicationAvailability) {
+            @Override
+            protected AvailabilityState getState(ApplicationAvailability availability) {
+                return slackWarmUpService.isWarm() ? super.getState(availability) : ReadinessState.REFUSING_TRAFFIC;
+            }
+        };
+    }
+}
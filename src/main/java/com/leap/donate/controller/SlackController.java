@@ -1,20 +1,28 @@
 package com.leap.donate.controller;
 
+import com.leap.donate.config.SqlStatementMonitor;
 import com.leap.donate.service.DonateService;
 import com.leap.donate.service.SlackService;
 import com.slack.api.app_backend.slash_commands.response.SlashCommandResponse;
 import com.slack.api.methods.SlackApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/slack")
@@ -22,15 +30,24 @@ import java.io.IOException;
 @Slf4j
 public class SlackController {
 
+    private static final Set<String> KNOWN_COMMANDS = Set.of("/i-want-to-give", "/mine", "/help", "/top-ten");
+
     private final DonateService donateService;
     private final SlackService slackService;
+    private final ThreadPoolTaskExecutor slashCommandExecutor;
+    private final MeterRegistry meterRegistry;
+    private final SqlStatementMonitor sqlStatementMonitor;
+
+    @Value("${app.slash-commands.async-enabled:false}")
+    private boolean asyncEnabled;
 
     @PostMapping(value = "/commands", consumes = MediaType.APPLICATION_FORM_URLENCODED_VALUE)
     public ResponseEntity<SlashCommandResponse> handleSlashCommand(
             @RequestParam("command") String command,
             @RequestParam("user_id") String userId,
             @RequestParam("channel_id") String channelId,
-            @RequestParam(value = "text", required = false) String text) throws IOException, SlackApiException {
+            @RequestParam(value = "text", required = false) String text,
+            @RequestParam(value = "response_url", required = false) String responseUrl) throws IOException, SlackApiException {
 
         // Validate required parameters
         if (command == null || userId == null || channelId == null) {
@@ -49,7 +66,68 @@ public class SlackController {
         }
 
         log.info("Processing slash command: {} from user: {}", command, userId);
-        
+
+        // /help needs no Slack or database work, so it is always answered inline
+        if (asyncEnabled && responseUrl != null && !"/help".equals(command)) {
+            return acknowledgeAndExecute(command, userId, channelId, text, responseUrl);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return ResponseEntity.ok(executeCommand(command, userId, channelId, text));
+        } finally {
+            sample.stop(commandTimer(command, "sync"));
+        }
+    }
+
+    /**
+     * Acknowledges the command immediately and finishes it on the bounded command executor,
+     * delivering the result to the command's response_url.
+     */
+    private ResponseEntity<SlashCommandResponse> acknowledgeAndExecute(
+            String command, String userId, String channelId, String text, String responseUrl) {
+        long acceptedAt = System.nanoTime();
+        try {
+            slashCommandExecutor.execute(() -> {
+                meterRegistry.timer("slack.commands.queue.wait", "command", commandTag(command))
+                        .record(System.nanoTime() - acceptedAt, TimeUnit.NANOSECONDS);
+
+                SlashCommandResponse response;
+                try {
+                    response = executeCommand(command, userId, channelId, text);
+                } catch (Exception e) {
+                    log.error("Error processing slash command {} from user {}", command, userId, e);
+                    response = slackService.buildErrorResponse("Something went wrong. Please try again.");
+                } finally {
+                    commandTimer(command, "async").record(System.nanoTime() - acceptedAt, TimeUnit.NANOSECONDS);
+                }
+
+                try {
+                    slackService.respond(responseUrl, response);
+                } catch (IOException e) {
+                    log.error("Failed to deliver response for {} to user {}", command, userId, e);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("Slash command queue is full, rejecting {} from user {}", command, userId);
+            meterRegistry.counter("slack.commands.rejected", "command", commandTag(command)).increment();
+            return ResponseEntity.ok(slackService.buildErrorResponse("The app is busy right now. Please try again in a moment."));
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private SlashCommandResponse executeCommand(String command, String userId, String channelId, String text)
+            throws IOException, SlackApiException {
+        sqlStatementMonitor.begin(commandTag(command));
+        try {
+            return dispatchCommand(command, userId, channelId, text);
+        } finally {
+            sqlStatementMonitor.finish();
+        }
+    }
+
+    private SlashCommandResponse dispatchCommand(String command, String userId, String channelId, String text)
+            throws IOException, SlackApiException {
         // Process recognized commands
         SlashCommandResponse response;
         switch (command) {
@@ -70,6 +148,19 @@ public class SlackController {
                 response = slackService.buildErrorResponse("Unknown command. Use /help to see available commands.");
                 break;
         }
-        return ResponseEntity.ok(response);
+        return response;
+    }
+
+    private Timer commandTimer(String command, String mode) {
+        return Timer.builder("slack.commands.latency")
+                .description("Slash command processing time")
+                .tag("command", commandTag(command))
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    // Keeps arbitrary user input out of metric tags
+    private static String commandTag(String command) {
+        return KNOWN_COMMANDS.contains(command) ? command : "unknown";
     }
-} 
\ No newline at end of file
+}
@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class CurrentScore {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "current_scores_seq")
+    @SequenceGenerator(name = "current_scores_seq", sequenceName = "current_scores_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
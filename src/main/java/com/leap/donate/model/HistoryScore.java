@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class HistoryScore {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "history_scores_seq")
+    @SequenceGenerator(name = "history_scores_seq", sequenceName = "history_scores_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
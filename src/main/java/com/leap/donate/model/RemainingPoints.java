@@ -19,7 +19,8 @@ import java.time.LocalDateTime;
 public class RemainingPoints {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "remaining_points_seq")
+    @SequenceGenerator(name = "remaining_points_seq", sequenceName = "remaining_points_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
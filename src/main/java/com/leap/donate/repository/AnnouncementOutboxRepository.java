@@ -0,0 +1,20 @@
+package com.leap.donate.repository;
+
+import com.leap.donate.model.AnnouncementOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AnnouncementOutboxRepository extends JpaRepository<AnnouncementOutbox, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited on
+    @Query(value = "SELECT * FROM announcement_outbox " +
+            "WHERE status = 'PENDING' AND next_attempt_at <= NOW() " +
+            "ORDER BY next_attempt_at, id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<AnnouncementOutbox> lockDueBatch(int limit);
+}
@@ -3,6 +3,7 @@ package com.leap.donate.repository;
 import com.leap.donate.model.CurrentScore;
 import com.leap.donate.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -15,4 +16,20 @@ public interface CurrentScoreRepository extends JpaRepository<CurrentScore, Long
     List<CurrentScore> findAllByMonthAndYearOrderByScoreDesc(Integer month, Integer year);
     Optional<CurrentScore> findByUserId(Long userId);
     List<CurrentScore> findTop10ByMonthAndYearOrderByScoreDesc(Integer month, Integer year);
+
+    @Query("SELECT cs.score FROM CurrentScore cs WHERE cs.user.slackId = :slackId AND cs.month = :month AND cs.year = :year")
+    Optional<Integer> findScoreBySlackId(String slackId, Integer month, Integer year);
+
+    @Query("SELECT cs FROM CurrentScore cs JOIN FETCH cs.user WHERE cs.month = :month AND cs.year = :year")
+    List<CurrentScore> findAllWithUserByMonthAndYear(Integer month, Integer year);
+
+    /**
+     * Atomically adds points to the month's score, creating the row if needed. Returns the new score.
+     */
+    @Query(value = "INSERT INTO current_scores (user_id, score, month, year, created_at, updated_at) " +
+            "VALUES (:userId, :points, :month, :year, NOW(), NOW()) " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE " +
+            "SET score = current_scores.score + EXCLUDED.score, updated_at = NOW() " +
+            "RETURNING current_scores.score", nativeQuery = true)
+    Integer upsertAddScore(String userId, int points, int month, int year);
 } 
\ No newline at end of file
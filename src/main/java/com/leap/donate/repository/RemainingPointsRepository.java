@@ -3,6 +3,7 @@ package com.leap.donate.repository;
 import com.leap.donate.model.RemainingPoints;
 import com.leap.donate.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,4 +13,20 @@ import java.util.Optional;
 public interface RemainingPointsRepository extends JpaRepository<RemainingPoints, Long> {
     Optional<RemainingPoints> findByUserAndMonthAndYear(User user, Integer month, Integer year);
     List<RemainingPoints> findAllByMonthAndYear(Integer month, Integer year);
+
+    @Query("SELECT rp.remainingPoints FROM RemainingPoints rp " +
+            "WHERE rp.user.slackId = :slackId AND rp.month = :month AND rp.year = :year")
+    Optional<Integer> findRemainingPointsBySlackId(String slackId, Integer month, Integer year);
+
+    /**
+     * Atomically deducts points, creating the month's row from the initial allowance if needed.
+     * Returns the new balance, or empty when the balance is lower than the requested points.
+     */
+    @Query(value = "INSERT INTO remaining_points (user_id, remaining_points, month, year, created_at, updated_at) " +
+            "SELECT :userId, :initialPoints - :points, :month, :year, NOW(), NOW() WHERE :initialPoints >= :points " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE " +
+            "SET remaining_points = remaining_points.remaining_points - :points, updated_at = NOW() " +
+            "WHERE remaining_points.remaining_points >= :points " +
+            "RETURNING remaining_points.remaining_points", nativeQuery = true)
+    Optional<Integer> deductIfSufficient(String userId, int points, int initialPoints, int month, int year);
 } 
\ No newline at end of file
@@ -5,9 +5,11 @@ import com.leap.donate.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
@@ -36,5 +38,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
         Pageable pageable
     );
     
-    long countBySenderIdAndCreatedAtAfter(String senderId, LocalDateTime createdAt);
+    // The transactions of one multi-recipient donation share created_at, so each donation is one row
+    @Query("SELECT DISTINCT t.sender.slackId, t.createdAt FROM Transaction t WHERE t.createdAt > :since ORDER BY t.createdAt")
+    List<Object[]> findSenderSlackIdsAndDonationTimesSince(LocalDateTime since);
 } 
\ No newline at end of file
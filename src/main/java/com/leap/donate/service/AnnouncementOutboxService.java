@@ -0,0 +1,131 @@
+package com.leap.donate.service;
+
+import com.leap.donate.model.AnnouncementOutbox;
+import com.leap.donate.repository.AnnouncementOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Transactional outbox for donation announcements. Messages are stored in the
+ * donation transaction and posted to Slack afterwards, so a slow or failing
+ * Slack call neither delays nor rolls back the donation.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class AnnouncementOutboxService {
+
+    // Announcements are the last stage of the donation pipeline
+    private static final String STAGE_COMMAND = "/i-want-to-give";
+
+    private final AnnouncementOutboxRepository outboxRepository;
+    private final SlackService slackService;
+    private final PlatformTransactionManager transactionManager;
+    private final PipelineMetrics pipelineMetrics;
+
+    @Value("${app.announcements.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.announcements.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${app.announcements.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.announcements.retry-base-delay-ms:2000}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.announcements.retry-max-delay-ms:300000}")
+    private long retryMaxDelayMs;
+
+    /**
+     * Queues a message for the donate channel. Joins the caller's transaction,
+     * so the message is only delivered if the donation commits.
+     */
+    @Transactional
+    public AnnouncementOutbox enqueue(String message) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxRepository.save(AnnouncementOutbox.builder()
+                .message(message)
+                .status(AnnouncementOutbox.Status.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.announcements.dispatch-interval-ms:1000}")
+    public void dispatchPending() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<AnnouncementOutbox> batch;
+        do {
+            batch = transactionTemplate.execute(status -> claimBatch());
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            log.debug("Dispatching {} pending announcements", batch.size());
+            for (AnnouncementOutbox announcement : batch) {
+                // Posted outside any transaction; only the outcome is written back
+                post(announcement);
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.save(announcement));
+            }
+        } while (batch.size() >= batchSize);
+    }
+
+    /**
+     * Leases a batch of due announcements by pushing their next attempt past the lease, so other
+     * dispatchers skip them while they are being posted. If this instance dies mid-batch, the
+     * lease runs out and the announcements are picked up again.
+     */
+    private List<AnnouncementOutbox> claimBatch() {
+        List<AnnouncementOutbox> batch = outboxRepository.lockDueBatch(batchSize);
+        LocalDateTime leasedUntil = LocalDateTime.now().plus(Duration.ofMillis(leaseMs));
+        batch.forEach(announcement -> announcement.setNextAttemptAt(leasedUntil));
+        return outboxRepository.saveAll(batch);
+    }
+
+    private void post(AnnouncementOutbox announcement) {
+        try {
+            String channelId = announcement.getChannelId() != null
+                    ? announcement.getChannelId()
+                    : pipelineMetrics.time(STAGE_COMMAND, "channel_resolution", slackService::createOrGetDonateChannel);
+            pipelineMetrics.time(STAGE_COMMAND, "announcement_post", () -> {
+                slackService.postMessage(channelId, announcement.getMessage());
+                return null;
+            });
+            announcement.setStatus(AnnouncementOutbox.Status.SENT);
+            announcement.setSentAt(LocalDateTime.now());
+            announcement.setAttempts(announcement.getAttempts() + 1);
+        } catch (Exception e) {
+            scheduleRetry(announcement, e);
+        }
+    }
+
+    private void scheduleRetry(AnnouncementOutbox announcement, Exception e) {
+        int attempts = announcement.getAttempts() + 1;
+        announcement.setAttempts(attempts);
+        announcement.setLastError(e.getMessage());
+
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on announcement {} after {} attempts: {}", announcement.getId(), attempts, e.getMessage());
+            announcement.setStatus(AnnouncementOutbox.Status.FAILED);
+            return;
+        }
+
+        // Exponential backoff capped at the configured maximum
+        long delayMs = Math.min(retryBaseDelayMs * (1L << Math.min(attempts - 1, 20)), retryMaxDelayMs);
+        announcement.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000L));
+        log.warn("Failed to post announcement {} (attempt {}), retrying in {}ms: {}",
+                announcement.getId(), attempts, delayMs, e.getMessage());
+    }
+}
@@ -0,0 +1,137 @@
+package com.leap.donate.service;
+
+import com.leap.donate.repository.CurrentScoreRepository;
+import com.leap.donate.repository.RemainingPointsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cached monthly balances behind /mine, keyed by Slack user ID and month. Loading only reads:
+ * a user without a row for the month has a score of 0 and the full allowance left.
+ * Entries are evicted when a score change commits and otherwise expire after
+ * {@code app.balance-cache.ttl-ms}, which bounds staleness from writes on other instances.
+ * In append-only ledger mode balances are loaded from the ledger instead of the score tables.
+ */
+@Service
+@Slf4j
+public class BalanceCache {
+
+    private final CurrentScoreRepository currentScoreRepository;
+    private final RemainingPointsRepository remainingPointsRepository;
+    private final LedgerService ledgerService;
+    private final long ttlMs;
+    private final Map<String, Balance> cache;
+    // Bumped by every eviction; a load that raced with one is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${app.max-points-per-month}")
+    private Integer maxPointsPerMonth;
+
+    public BalanceCache(CurrentScoreRepository currentScoreRepository,
+                        RemainingPointsRepository remainingPointsRepository,
+                        LedgerService ledgerService,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.balance-cache.max-size:10000}") int maxSize,
+                        @Value("${app.balance-cache.ttl-ms:60000}") long ttlMs) {
+        this.currentScoreRepository = currentScoreRepository;
+        this.remainingPointsRepository = remainingPointsRepository;
+        this.ledgerService = ledgerService;
+        this.ttlMs = ttlMs;
+        // Least recently used balances are evicted once the map is full
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Balance> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.hits = meterRegistry.counter("balances.cache", "result", "hit");
+        this.misses = meterRegistry.counter("balances.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("balances.cache.size", Collections.emptyList(), cache);
+    }
+
+    public Balance get(String slackId, YearMonth yearMonth) {
+        String key = key(slackId, yearMonth);
+        Balance cached = cache.get(key);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        Balance loaded = load(slackId, yearMonth);
+        synchronized (cache) {
+            if (generation.get() == loadGeneration) {
+                cache.put(key, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops a user's cached balance for the month; call once the change has committed.
+     */
+    public void evict(String slackId, YearMonth yearMonth) {
+        if (slackId == null) {
+            return;
+        }
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.remove(key(slackId, yearMonth));
+        }
+    }
+
+    /**
+     * Drops every cached balance, e.g. after balances were recomputed in bulk.
+     */
+    public void clear() {
+        synchronized (cache) {
+            generation.incrementAndGet();
+            cache.clear();
+        }
+        log.debug("Cleared balance cache");
+    }
+
+    private Balance load(String slackId, YearMonth yearMonth) {
+        if (ledgerService.isAppendOnly()) {
+            LedgerService.Totals totals = ledgerService.totalsBySlackId(slackId, yearMonth);
+            return new Balance(totals.getReceived(), maxPointsPerMonth - totals.getSpent(), System.currentTimeMillis());
+        }
+        int month = yearMonth.getMonthValue();
+        int year = yearMonth.getYear();
+        return new Balance(
+                currentScoreRepository.findScoreBySlackId(slackId, month, year).orElse(0),
+                remainingPointsRepository.findRemainingPointsBySlackId(slackId, month, year).orElse(maxPointsPerMonth),
+                System.currentTimeMillis());
+    }
+
+    private static String key(String slackId, YearMonth yearMonth) {
+        return slackId + ':' + yearMonth;
+    }
+
+    public static final class Balance {
+        private final int score;
+        private final int remainingPoints;
+        private final long loadedAt;
+
+        private Balance(int score, int remainingPoints, long loadedAt) {
+            this.score = score;
+            this.remainingPoints = remainingPoints;
+            this.loadedAt = loadedAt;
+        }
+
+        public int getScore() { return score; }
+        public int getRemainingPoints() { return remainingPoints; }
+    }
+}
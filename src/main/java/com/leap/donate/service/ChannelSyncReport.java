@@ -0,0 +1,47 @@
+package com.leap.donate.service;
+
+import java.util.Map;
+
+/**
+ * Outcome of one donate channel invite sync.
+ */
+public final class ChannelSyncReport {
+    private final String channelId;
+    private final int workspaceUsers;
+    private final int eligibleUsers;
+    private final int existingMembers;
+    private final int invited;
+    private final int inviteCalls;
+    // User ID to Slack error for users that could not be invited
+    private final Map<String, String> failures;
+    private final long durationMs;
+
+    public ChannelSyncReport(String channelId, int workspaceUsers, int eligibleUsers, int existingMembers,
+                             int invited, int inviteCalls, Map<String, String> failures, long durationMs) {
+        this.channelId = channelId;
+        this.workspaceUsers = workspaceUsers;
+        this.eligibleUsers = eligibleUsers;
+        this.existingMembers = existingMembers;
+        this.invited = invited;
+        this.inviteCalls = inviteCalls;
+        this.failures = failures;
+        this.durationMs = durationMs;
+    }
+
+    public String getChannelId() { return channelId; }
+    public int getWorkspaceUsers() { return workspaceUsers; }
+    public int getEligibleUsers() { return eligibleUsers; }
+    public int getExistingMembers() { return existingMembers; }
+    public int getInvited() { return invited; }
+    public int getInviteCalls() { return inviteCalls; }
+    public Map<String, String> getFailures() { return failures; }
+    public long getDurationMs() { return durationMs; }
+
+    @Override
+    public String toString() {
+        return String.format("channel %s: %d workspace users, %d eligible, %d already members, "
+                        + "%d invited in %d calls, %d failed, %dms",
+                channelId, workspaceUsers, eligibleUsers, existingMembers, invited, inviteCalls,
+                failures.size(), durationMs);
+    }
+}
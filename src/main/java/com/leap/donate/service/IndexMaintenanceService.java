@@ -1,87 +1,236 @@
 package com.leap.donate.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nightly maintenance driven by the statistics instead of a fixed table list. Tables are vacuumed
+ * when their dead-tuple ratio is high, and btree indexes are rebuilt with REINDEX CONCURRENTLY when
+ * their size is well above an estimate from the column statistics. Work stops once
+ * {@code app.maintenance.time-budget-ms} is spent; the running statement is cancelled at the limit.
+ * Every action is recorded in maintenance_log. Runs once a day across all instances.
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class IndexMaintenanceService {
-    
+
+    private static final String VACUUM_CANDIDATES_SQL =
+            "SELECT relname, n_dead_tup, n_live_tup, " +
+            "n_dead_tup::float8 / GREATEST(n_live_tup + n_dead_tup, 1) AS dead_ratio, " +
+            "pg_total_relation_size(relid) AS total_bytes " +
+            "FROM pg_stat_user_tables " +
+            "WHERE schemaname = current_schema() AND n_dead_tup >= ? " +
+            "AND n_dead_tup::float8 / GREATEST(n_live_tup + n_dead_tup, 1) >= ? " +
+            "ORDER BY n_dead_tup DESC";
+
+    // Partitioned parents have no storage and autovacuum never analyzes them
+    private static final String PARTITIONED_TABLES_SQL =
+            "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname = current_schema() AND c.relkind = 'p'";
+
+    // Leftovers of REINDEX CONCURRENTLY runs that were cancelled or failed
+    private static final String INVALID_REINDEX_LEFTOVERS_SQL =
+            "SELECT i.relname FROM pg_index x " +
+            "JOIN pg_class i ON i.oid = x.indexrelid JOIN pg_namespace n ON n.oid = i.relnamespace " +
+            "WHERE n.nspname = current_schema() AND NOT x.indisvalid AND i.relname ~ '_ccnew[0-9]*$'";
+
+    /*
+     * Expected btree size from the column statistics: each entry is an 8-byte tuple header plus
+     * the key's average width, aligned to 8 bytes, plus a 4-byte line pointer, on pages filled to
+     * 90% after the 24-byte page header and 16-byte btree special space, plus the metapage.
+     */
+    private static final String BTREE_BLOAT_SQL =
+            "SELECT index_name, table_name, actual_bytes, expected_bytes, " +
+            "1 - expected_bytes / GREATEST(actual_bytes, 1) AS bloat_ratio FROM (" +
+            "SELECT i.relname AS index_name, t.relname AS table_name, " +
+            "pg_relation_size(i.oid)::float8 AS actual_bytes, " +
+            "(CEIL(i.reltuples::float8 * (CEIL((8 + SUM(COALESCE(s.avg_width, 8)))::float8 / 8) * 8 + 4) " +
+            "/ FLOOR((current_setting('block_size')::int - 40) * 0.9::float8)) + 1) " +
+            "* current_setting('block_size')::int AS expected_bytes " +
+            "FROM pg_index x " +
+            "JOIN pg_class i ON i.oid = x.indexrelid " +
+            "JOIN pg_class t ON t.oid = x.indrelid " +
+            "JOIN pg_namespace n ON n.oid = i.relnamespace " +
+            "JOIN pg_am a ON a.oid = i.relam AND a.amname = 'btree' " +
+            "JOIN pg_attribute att ON att.attrelid = t.oid AND att.attnum = ANY(x.indkey::int2[]) " +
+            "LEFT JOIN pg_stats s ON s.schemaname = n.nspname AND s.tablename = t.relname AND s.attname = att.attname " +
+            "WHERE n.nspname = current_schema() AND i.relkind = 'i' AND x.indisvalid AND i.reltuples > 0 " +
+            "GROUP BY i.oid, i.relname, t.relname, i.reltuples" +
+            ") estimate WHERE actual_bytes >= ? AND 1 - expected_bytes / GREATEST(actual_bytes, 1) >= ? " +
+            "ORDER BY actual_bytes - expected_bytes DESC";
+
+    private static final String INSERT_LOG_SQL =
+            "INSERT INTO maintenance_log (run_id, action, target, reason, outcome, error, " +
+            "bytes_before, bytes_after, started_at, duration_ms) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String TABLE_SIZE_SQL = "SELECT pg_total_relation_size(CAST(? AS regclass))";
+    private static final String INDEX_SIZE_SQL = "SELECT pg_relation_size(CAST(? AS regclass))";
+
     private final JdbcTemplate jdbcTemplate;
-    
-    @Scheduled(cron = "0 0 2 * * ?") // Run daily at 2 AM
+    private final MeterRegistry meterRegistry;
+    private final JobLockService jobLockService;
+
+    @Value("${app.maintenance.time-budget-ms:1800000}")
+    private long timeBudgetMs;
+
+    @Value("${app.maintenance.vacuum.min-dead-tuples:1000}")
+    private long minDeadTuples;
+
+    @Value("${app.maintenance.vacuum.dead-tuple-ratio:0.1}")
+    private double deadTupleRatio;
+
+    @Value("${app.maintenance.reindex.min-index-bytes:10485760}")
+    private long minIndexBytes;
+
+    @Value("${app.maintenance.reindex.bloat-ratio:0.3}")
+    private double bloatRatio;
+
+    @Scheduled(cron = "${app.maintenance.cron:0 0 2 * * ?}")
     public void performMaintenance() {
-        log.info("Starting index maintenance");
-        
-        // Vacuum analyze all tables
-        vacuumAnalyzeTables();
-        
-        // Check for index bloat
-        checkIndexBloat();
-        
-        // Rebuild indexes if needed
-        rebuildIndexesIfNeeded();
-        
-        log.info("Index maintenance completed");
+        jobLockService.runOnce("index-maintenance", LocalDate.now().toString(), this::maintain);
+    }
+
+    private void maintain() {
+        MaintenanceRun run = new MaintenanceRun(UUID.randomUUID().toString(), System.currentTimeMillis() + timeBudgetMs);
+        log.info("Starting index maintenance run {} with a budget of {}ms", run.id, timeBudgetMs);
+
+        dropInvalidReindexLeftovers(run);
+        vacuumDeadTuples(run);
+        analyzePartitionedTables(run);
+        reindexBloatedIndexes(run);
+
+        log.info("Index maintenance run {} completed: {} actions, {} failed, {} skipped for budget",
+                run.id, run.actions, run.failures, run.skipped);
+    }
+
+    private void dropInvalidReindexLeftovers(MaintenanceRun run) {
+        for (String index : jdbcTemplate.queryForList(INVALID_REINDEX_LEFTOVERS_SQL, String.class)) {
+            execute(run, "drop_invalid", index, "invalid index left by an interrupted REINDEX CONCURRENTLY",
+                    "DROP INDEX CONCURRENTLY IF EXISTS " + quote(index), INDEX_SIZE_SQL);
+        }
+    }
+
+    private void vacuumDeadTuples(MaintenanceRun run) {
+        List<Map<String, Object>> candidates = jdbcTemplate.queryForList(VACUUM_CANDIDATES_SQL, minDeadTuples, deadTupleRatio);
+        for (Map<String, Object> row : candidates) {
+            String table = (String) row.get("relname");
+            String reason = String.format("%s dead of %s live tuples (ratio %.2f)",
+                    row.get("n_dead_tup"), row.get("n_live_tup"), ((Number) row.get("dead_ratio")).doubleValue());
+            execute(run, "vacuum", table, reason, "VACUUM (ANALYZE) " + quote(table), TABLE_SIZE_SQL);
+        }
+    }
+
+    private void analyzePartitionedTables(MaintenanceRun run) {
+        for (String table : jdbcTemplate.queryForList(PARTITIONED_TABLES_SQL, String.class)) {
+            execute(run, "analyze", table, "partitioned table statistics", "ANALYZE " + quote(table), null);
+        }
+    }
+
+    private void reindexBloatedIndexes(MaintenanceRun run) {
+        List<Map<String, Object>> candidates = jdbcTemplate.queryForList(BTREE_BLOAT_SQL, minIndexBytes, bloatRatio);
+        for (Map<String, Object> row : candidates) {
+            String index = (String) row.get("index_name");
+            String reason = String.format("on %s: %d bytes, estimated %d (bloat %.2f)", row.get("table_name"),
+                    ((Number) row.get("actual_bytes")).longValue(), ((Number) row.get("expected_bytes")).longValue(),
+                    ((Number) row.get("bloat_ratio")).doubleValue());
+            execute(run, "reindex", index, reason, "REINDEX INDEX CONCURRENTLY " + quote(index), INDEX_SIZE_SQL);
+        }
+    }
+
+    /**
+     * Runs one maintenance statement with the remaining budget as its statement timeout and
+     * records the outcome. Statements are skipped once the budget is spent.
+     */
+    private void execute(MaintenanceRun run, String action, String target, String reason, String sql, String sizeSql) {
+        long remainingMs = run.deadline - System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        if (remainingMs <= 0) {
+            run.skipped++;
+            record(run, action, target, reason, "skipped", "time budget spent", null, null, startedAt, 0);
+            return;
+        }
+
+        Long bytesBefore = size(sizeSql, target);
+        long startedNs = System.nanoTime();
+        String outcome = "ok";
+        String error = null;
+        try {
+            // VACUUM and the CONCURRENTLY variants cannot run in a transaction, so the timeout is set
+            // on the connection and reset before it goes back to the pool
+            jdbcTemplate.execute((Statement statement) -> {
+                statement.execute("SET statement_timeout = " + remainingMs);
+                try {
+                    statement.execute(sql);
+                } finally {
+                    statement.execute("RESET statement_timeout");
+                }
+                return null;
+            });
+            log.info("Maintenance {} on {} ({})", action, target, reason);
+        } catch (DataAccessException e) {
+            outcome = "failed";
+            error = e.getMostSpecificCause().getMessage();
+            run.failures++;
+            log.error("Maintenance {} on {} failed: {}", action, target, error);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNs);
+        run.actions++;
+        meterRegistry.timer("maintenance.actions", "action", action, "outcome", outcome)
+                .record(durationMs, TimeUnit.MILLISECONDS);
+        record(run, action, target, reason, outcome, error, bytesBefore, size(sizeSql, target), startedAt, durationMs);
     }
-    
-    private void vacuumAnalyzeTables() {
-        String[] tables = {
-            "transactions", "users", "current_scores", 
-            "remaining_points", "history_scores"
-        };
-        
-        for (String table : tables) {
-            try {
-                jdbcTemplate.execute("VACUUM ANALYZE " + table);
-                log.info("VACUUM ANALYZE completed for table: {}", table);
-            } catch (Exception e) {
-                log.error("Error during VACUUM ANALYZE for table {}: {}", table, e.getMessage());
-            }
+
+    private Long size(String sizeSql, String relation) {
+        if (sizeSql == null) {
+            return null;
+        }
+        try {
+            return jdbcTemplate.queryForObject(sizeSql, Long.class, quote(relation));
+        } catch (DataAccessException e) {
+            // The relation is gone, e.g. after dropping an invalid index
+            return null;
         }
     }
-    
-    private void checkIndexBloat() {
-        String sql = "SELECT " +
-            "schemaname, " +
-            "tablename, " +
-            "indexname, " +
-            "pg_size_pretty(pg_relation_size(schemaname || '.' || indexname::text)) as index_size, " +
-            "pg_size_pretty(pg_relation_size(schemaname || '.' || tablename::text)) as table_size " +
-            "FROM pg_stat_user_indexes " +
-            "WHERE tablename IN ('transactions', 'users', 'current_scores', 'remaining_points', 'history_scores') " +
-            "ORDER BY pg_relation_size(schemaname || '.' || indexname::text) DESC";
-            
-        jdbcTemplate.queryForList(sql).forEach(row -> 
-            log.info("Index: {}, Size: {}, Table Size: {}", 
-                row.get("indexname"),
-                row.get("index_size"),
-                row.get("table_size"))
-        );
+
+    private void record(MaintenanceRun run, String action, String target, String reason, String outcome,
+                        String error, Long bytesBefore, Long bytesAfter, LocalDateTime startedAt, long durationMs) {
+        try {
+            jdbcTemplate.update(INSERT_LOG_SQL, run.id, action, target, reason, outcome, error,
+                    bytesBefore, bytesAfter, startedAt, durationMs);
+        } catch (DataAccessException e) {
+            log.error("Error recording maintenance {} on {}: {}", action, target, e.getMessage());
+        }
     }
-    
-    private void rebuildIndexesIfNeeded() {
-        String sql = "SELECT " +
-            "schemaname, " +
-            "tablename, " +
-            "indexname " +
-            "FROM pg_stat_user_indexes " +
-            "WHERE tablename IN ('transactions', 'users', 'current_scores', 'remaining_points', 'history_scores') " +
-            "AND idx_scan = 0 " +
-            "AND pg_relation_size(schemaname || '.' || indexname::text) > 1000000"; // 1MB
-            
-        jdbcTemplate.queryForList(sql).forEach(row -> {
-            String indexName = row.get("schemaname") + "." + row.get("indexname");
-            try {
-                jdbcTemplate.execute("REINDEX INDEX " + indexName);
-                log.info("Rebuilt unused index: {}", indexName);
-            } catch (Exception e) {
-                log.error("Error rebuilding index {}: {}", indexName, e.getMessage());
-            }
-        });
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    private static final class MaintenanceRun {
+        private final String id;
+        private final long deadline;
+        private int actions;
+        private int failures;
+        private int skipped;
+
+        private MaintenanceRun(String id, long deadline) {
+            this.id = id;
+            this.deadline = deadline;
+        }
     }
-} 
\ No newline at end of file
+}
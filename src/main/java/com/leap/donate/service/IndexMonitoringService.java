@@ -2,10 +2,12 @@ package com.leap.donate.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -15,9 +17,17 @@ import java.util.Map;
 public class IndexMonitoringService {
     
     private final JdbcTemplate jdbcTemplate;
+    private final JobLockService jobLockService;
     
-    @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight
+    @Scheduled(cron = "0 0 0 * * ?") // Run daily at midnight, on one instance
     public void monitorIndexUsage() {
+        jobLockService.runOnce("index-monitoring", LocalDate.now().toString(), () -> {
+            reportIndexUsage();
+            analyzeSlowQueries();
+        });
+    }
+
+    private void reportIndexUsage() {
         String sql = "SELECT " +
             "schemaname, " +
             "relname as tablename, " +
@@ -42,26 +52,37 @@ public class IndexMonitoringService {
         );
     }
     
+    /**
+     * Logs the slowest statements of this database by mean time. Needs the pg_stat_statements
+     * extension (PostgreSQL 13+ column names).
+     */
     public void analyzeSlowQueries() {
         String sql = "SELECT " +
             "query, " +
             "calls, " +
-            "total_time, " +
-            "mean_time, " +
+            "total_exec_time, " +
+            "mean_exec_time, " +
             "rows " +
             "FROM pg_stat_statements " +
-            "WHERE query LIKE '%transactions%' " +
-            "ORDER BY mean_time DESC " +
+            "WHERE dbid = (SELECT oid FROM pg_database WHERE datname = current_database()) " +
+            "ORDER BY mean_exec_time DESC " +
             "LIMIT 10";
-            
-        List<Map<String, Object>> results = jdbcTemplate.queryForList(sql);
+
+        List<Map<String, Object>> results;
+        try {
+            results = jdbcTemplate.queryForList(sql);
+        } catch (DataAccessException e) {
+            log.info("Skipping slow query report, pg_stat_statements is not available: {}", e.getMessage());
+            return;
+        }
         
         log.info("Slow Queries Report:");
         results.forEach(row -> 
-            log.info("Query: {}, Mean Time: {}ms, Calls: {}", 
+            log.info("Query: {}, Mean Time: {}ms, Total Time: {}ms, Calls: {}", 
                 row.get("query"),
-                row.get("mean_time"),
+                row.get("mean_exec_time"),
+                row.get("total_exec_time"),
                 row.get("calls"))
         );
     }
-} 
\ No newline at end of file
+}
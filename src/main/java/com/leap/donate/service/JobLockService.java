@@ -0,0 +1,147 @@
+package com.leap.donate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs scheduled jobs on one instance at a time. The job holds a session-level advisory lock on a
+ * connection of its own for as long as it runs, so the lock is released even if the instance dies.
+ * Instances that do not get the lock skip the run. Runs are recorded in scheduled_job_runs, and a
+ * job given a run key (such as the month it covers) runs at most once per key across the cluster.
+ * <p>
+ * The run is recorded on the lock connection, so a running job takes one pool connection for
+ * the lock plus whatever its body uses, usually one more. Scheduled tasks share Spring's single
+ * scheduler thread ({@code spring.task.scheduling.pool.size} defaults to 1), so jobs do not
+ * overlap on an instance and leave the rest of the Hikari pool (10 by default) to commands.
+ * Raising the scheduler pool size means sizing the connection pool for two connections per job.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class JobLockService {
+
+    // First key of the two-key advisory locks held by scheduled jobs
+    private static final int JOB_LOCK_NAMESPACE = 2;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?, hashtext(?))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?, hashtext(?))";
+
+    private static final String SUCCEEDED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM scheduled_job_runs WHERE job_name = ? AND run_key = ? AND status = 'SUCCEEDED')";
+
+    // Holding the lock means no other run of the job is alive, so leftover RUNNING rows were interrupted
+    private static final String ABANDON_SQL =
+            "UPDATE scheduled_job_runs SET status = 'ABANDONED', finished_at = NOW() " +
+            "WHERE job_name = ? AND status = 'RUNNING'";
+
+    private static final String START_RUN_SQL =
+            "INSERT INTO scheduled_job_runs (job_name, run_key, instance_id, status, started_at) " +
+            "VALUES (?, ?, ?, 'RUNNING', NOW()) RETURNING id";
+
+    private static final String FINISH_RUN_SQL =
+            "UPDATE scheduled_job_runs SET status = ?, finished_at = NOW(), duration_ms = ?, error = ? WHERE id = ?";
+
+    private static final String INSTANCE_ID = ManagementFactory.getRuntimeMXBean().getName();
+
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs the job unless another instance is running it.
+     *
+     * @return whether the job ran on this instance
+     */
+    public boolean runExclusive(String jobName, Runnable job) {
+        return run(jobName, null, job);
+    }
+
+    /**
+     * Runs the job unless another instance is running it or a run with the same key has already
+     * succeeded, e.g. {@code runOnce("monthly-reset", YearMonth.now().toString(), ...)}.
+     *
+     * @return whether the job ran on this instance
+     */
+    public boolean runOnce(String jobName, String runKey, Runnable job) {
+        return run(jobName, runKey, job);
+    }
+
+    private boolean run(String jobName, String runKey, Runnable job) {
+        // Not a pool-managed transaction: the lock lives with this connection until it is unlocked or closed
+        try (Connection lockConnection = dataSource.getConnection()) {
+            lockConnection.setAutoCommit(true);
+            if (!advisoryLock(lockConnection, TRY_LOCK_SQL, jobName)) {
+                skipped(jobName, "locked");
+                log.info("Skipping job {}: running on another instance", jobName);
+                return false;
+            }
+            try {
+                // Bookkeeping shares the lock connection instead of taking another one from the pool
+                JdbcTemplate lockJdbc = new JdbcTemplate(new SingleConnectionDataSource(lockConnection, true));
+                if (runKey != null && Boolean.TRUE.equals(
+                        lockJdbc.queryForObject(SUCCEEDED_SQL, Boolean.class, jobName, runKey))) {
+                    skipped(jobName, "done");
+                    log.info("Skipping job {}: already ran for {}", jobName, runKey);
+                    return false;
+                }
+                execute(lockJdbc, jobName, runKey, job);
+                return true;
+            } finally {
+                advisoryLock(lockConnection, UNLOCK_SQL, jobName);
+            }
+        } catch (SQLException e) {
+            log.error("Error taking the lock for job {}: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    private void execute(JdbcTemplate lockJdbc, String jobName, String runKey, Runnable job) {
+        lockJdbc.update(ABANDON_SQL, jobName);
+        Long runId = lockJdbc.queryForObject(START_RUN_SQL, Long.class, jobName, runKey, INSTANCE_ID);
+        long startedAt = System.nanoTime();
+        String status = "FAILED";
+        String error = null;
+        try {
+            job.run();
+            status = "SUCCEEDED";
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            log.error("Job {} failed", jobName, e);
+        } finally {
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            meterRegistry.timer("jobs.runs", "job", jobName, "status", status.toLowerCase())
+                    .record(durationMs, TimeUnit.MILLISECONDS);
+            try {
+                lockJdbc.update(FINISH_RUN_SQL, status, durationMs, error, runId);
+            } catch (DataAccessException e) {
+                log.error("Error recording run of job {}: {}", jobName, e.getMessage());
+            }
+        }
+    }
+
+    private void skipped(String jobName, String reason) {
+        meterRegistry.counter("jobs.skipped", "job", jobName, "reason", reason).increment();
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String jobName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, JOB_LOCK_NAMESPACE);
+            statement.setString(2, jobName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.leap.donate.service;
+
+import com.leap.donate.model.CurrentScore;
+import com.leap.donate.model.User;
+import com.leap.donate.repository.CurrentScoreRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory monthly ranking behind /top-ten. Built from current_scores once per month,
+ * then updated in place after each committed score change, so reads need no database access.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class Leaderboard {
+
+    private final CurrentScoreRepository currentScoreRepository;
+
+    private final Map<YearMonth, MonthBoard> boards = new ConcurrentHashMap<>();
+
+    /**
+     * Returns up to {@code limit} active users with the highest scores for the month.
+     */
+    public List<Entry> top(YearMonth yearMonth, int limit) {
+        List<Entry> top = new ArrayList<>(limit);
+        for (Entry entry : board(yearMonth).ranking) {
+            if (top.size() >= limit) {
+                break;
+            }
+            if (entry.getStatus() == User.UserStatus.ACTIVE) {
+                top.add(entry);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Records a user's new total score for the month. Scores only grow within a month,
+     * so a lower value arriving late from a concurrent commit is ignored.
+     */
+    public void recordScore(User user, YearMonth yearMonth, int score) {
+        MonthBoard board = boards.get(yearMonth);
+        if (board == null) {
+            // Not loaded yet; the first read builds the month from current_scores
+            return;
+        }
+        board.put(new Entry(user, score), true);
+    }
+
+    /**
+     * Refreshes a user's display name and status on every loaded month.
+     */
+    public void updateUser(User user) {
+        boards.values().forEach(board -> {
+            Entry existing = board.byUser.get(user.getId());
+            if (existing != null) {
+                board.put(new Entry(user, existing.getScore()), false);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        YearMonth currentMonth = YearMonth.now();
+        install(currentMonth, load(currentMonth));
+    }
+
+    /**
+     * Periodically reconciles with current_scores to pick up writes made by other
+     * instances or directly in the database, and drops months that are over.
+     */
+    @Scheduled(fixedDelayString = "${app.leaderboard.resync-interval-ms:300000}",
+            initialDelayString = "${app.leaderboard.resync-interval-ms:300000}")
+    public void resync() {
+        YearMonth currentMonth = YearMonth.now();
+        boards.keySet().removeIf(yearMonth -> yearMonth.isBefore(currentMonth));
+        install(currentMonth, load(currentMonth));
+    }
+
+    /**
+     * Replaces the month's board with current_scores as they are now, dropping higher scores
+     * the board still holds. Used after balances are rebuilt, when scores may have gone down.
+     */
+    public void reload(YearMonth yearMonth) {
+        boards.put(yearMonth, load(yearMonth));
+    }
+
+    private MonthBoard board(YearMonth yearMonth) {
+        MonthBoard board = boards.get(yearMonth);
+        // Loaded outside the map so the query does not run under its bin lock
+        return board != null ? board : install(yearMonth, load(yearMonth));
+    }
+
+    /**
+     * Installs a freshly loaded board, or merges it into the one already in use. The load was
+     * queried before this call, so scores recorded since then are kept when they are higher.
+     */
+    private MonthBoard install(YearMonth yearMonth, MonthBoard loaded) {
+        MonthBoard existing = boards.putIfAbsent(yearMonth, loaded);
+        if (existing == null) {
+            return loaded;
+        }
+        loaded.byUser.values().forEach(entry -> existing.put(entry, true));
+        return existing;
+    }
+
+    private MonthBoard load(YearMonth yearMonth) {
+        long startedAt = System.currentTimeMillis();
+        MonthBoard board = new MonthBoard();
+        List<CurrentScore> scores = currentScoreRepository.findAllWithUserByMonthAndYear(
+                yearMonth.getMonthValue(), yearMonth.getYear());
+        scores.forEach(score -> board.put(new Entry(score.getUser(), score.getScore()), false));
+        log.info("Loaded leaderboard for {} with {} users in {}ms",
+                yearMonth, scores.size(), System.currentTimeMillis() - startedAt);
+        return board;
+    }
+
+    private static final class MonthBoard {
+        private final Map<String, Entry> byUser = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> ranking = new ConcurrentSkipListSet<>(
+                Comparator.comparingInt(Entry::getScore).reversed().thenComparing(Entry::getUserId));
+
+        private synchronized void put(Entry entry, boolean onlyIfHigher) {
+            Entry previous = byUser.get(entry.getUserId());
+            if (previous != null) {
+                if (onlyIfHigher && previous.getScore() > entry.getScore()) {
+                    return;
+                }
+                ranking.remove(previous);
+            }
+            byUser.put(entry.getUserId(), entry);
+            ranking.add(entry);
+        }
+    }
+
+    public static final class Entry {
+        private final String userId;
+        private final String displayName;
+        private final User.UserStatus status;
+        private final int score;
+
+        public Entry(User user, int score) {
+            this.userId = user.getId();
+            this.displayName = user.getRealName() != null ? user.getRealName() : user.getUsername();
+            this.status = user.getStatus();
+            this.score = score;
+        }
+
+        public String getUserId() { return userId; }
+        public String getDisplayName() { return displayName; }
+        public User.UserStatus getStatus() { return status; }
+        public int getScore() { return score; }
+    }
+}
@@ -0,0 +1,273 @@
+package com.leap.donate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Balances derived from the transactions ledger. With {@code app.ledger.mode=append-only}
+ * a donation only inserts transactions: the sender's balance is checked under a per-sender
+ * advisory lock against the latest balance_snapshots row plus the ledger tail after its
+ * cutoff, and current_scores/remaining_points become a materialized view that
+ * {@link #rebuildMonth} refreshes. In the default {@code mutable} mode those tables stay
+ * the source of truth and {@link #rebuildMonth} is only a repair tool, run through
+ * {@code POST /actuator/ledger}.
+ */
+@Service
+@Slf4j
+public class LedgerService {
+
+    public static final String MODE_MUTABLE = "mutable";
+    public static final String MODE_APPEND_ONLY = "append-only";
+
+    // First key of the two-key advisory locks taken on a sender's user ID
+    private static final int SENDER_LOCK_NAMESPACE = 1;
+    private static final long SNAPSHOT_LOCK_KEY = 0x4c45444745520001L;
+
+    private static final String LOCK_SENDER_SQL = "SELECT pg_advisory_xact_lock(?, hashtext(?))";
+    private static final String TRY_LOCK_SNAPSHOT_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    // Blocks score writes, and waits for uncommitted ones, until the rebuild commits. Donations write
+    // remaining_points before current_scores, so the tables are locked in that order to avoid deadlocks.
+    private static final String LOCK_BALANCES_SQL =
+            "LOCK TABLE remaining_points, current_scores IN SHARE ROW EXCLUSIVE MODE";
+
+    // Snapshot totals plus the ledger after the snapshot's cutoff (or the whole month without one)
+    private static final String TOTALS_SQL_TEMPLATE =
+            "SELECT u.user_id, COALESCE(s.received, 0) + COALESCE((SELECT SUM(t.amount) FROM transactions t " +
+            "WHERE t.recipient_id = u.user_id AND t.created_at >= COALESCE(s.cutoff_at, ?) AND t.created_at < ?), 0), " +
+            "COALESCE(s.spent, 0) + COALESCE((SELECT SUM(t.amount) FROM transactions t " +
+            "WHERE t.sender_id = u.user_id AND t.created_at >= COALESCE(s.cutoff_at, ?) AND t.created_at < ?), 0) " +
+            "FROM (%s) u LEFT JOIN balance_snapshots s ON s.user_id = u.user_id AND s.month = ? AND s.year = ?";
+    private static final String TOTALS_BY_USER_ID_SQL =
+            String.format(TOTALS_SQL_TEMPLATE, "SELECT CAST(? AS VARCHAR) AS user_id");
+    private static final String TOTALS_BY_SLACK_ID_SQL =
+            String.format(TOTALS_SQL_TEMPLATE, "SELECT id AS user_id FROM users WHERE slack_id = ?");
+    private static final String TOTALS_BY_USER_IDS_SQL =
+            String.format(TOTALS_SQL_TEMPLATE, "SELECT unnest(CAST(? AS VARCHAR[])) AS user_id");
+
+    private static final String LEDGER_WINDOW_SQL =
+            "SELECT user_id, SUM(received) AS received, SUM(spent) AS spent FROM (" +
+            "SELECT recipient_id AS user_id, amount AS received, 0 AS spent FROM transactions " +
+            "WHERE created_at >= ? AND created_at < ? " +
+            "UNION ALL " +
+            "SELECT sender_id, 0, amount FROM transactions WHERE created_at >= ? AND created_at < ?" +
+            ") ledger GROUP BY user_id";
+
+    private static final String LAST_CUTOFF_SQL =
+            "SELECT MAX(cutoff_at) FROM balance_snapshots WHERE month = ? AND year = ?";
+
+    // Users without transactions in the window keep their older cutoff, which is still exact for them
+    private static final String ADVANCE_SNAPSHOTS_SQL =
+            "INSERT INTO balance_snapshots (user_id, month, year, received, spent, cutoff_at, updated_at) " +
+            "SELECT user_id, ?, ?, received, spent, ?, NOW() FROM (" + LEDGER_WINDOW_SQL + ") tail " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE SET " +
+            "received = balance_snapshots.received + EXCLUDED.received, " +
+            "spent = balance_snapshots.spent + EXCLUDED.spent, " +
+            "cutoff_at = EXCLUDED.cutoff_at, updated_at = NOW()";
+
+    private static final String CREATE_MONTH_TOTALS_SQL =
+            "CREATE TEMPORARY TABLE ledger_month_totals ON COMMIT DROP AS " + LEDGER_WINDOW_SQL;
+
+    // Unchanged rows are skipped so a rebuild does not leave dead tuples behind
+    private static final String UPSERT_SCORES_SQL =
+            "INSERT INTO current_scores (user_id, score, month, year, created_at, updated_at) " +
+            "SELECT user_id, received, ?, ?, NOW(), NOW() FROM ledger_month_totals WHERE received > 0 " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE SET score = EXCLUDED.score, updated_at = NOW() " +
+            "WHERE current_scores.score <> EXCLUDED.score";
+
+    private static final String RESET_SCORES_SQL =
+            "UPDATE current_scores c SET score = 0, updated_at = NOW() " +
+            "WHERE c.month = ? AND c.year = ? AND c.score <> 0 AND NOT EXISTS (" +
+            "SELECT 1 FROM ledger_month_totals l WHERE l.user_id = c.user_id AND l.received > 0)";
+
+    private static final String UPSERT_REMAINING_SQL =
+            "INSERT INTO remaining_points (user_id, remaining_points, month, year, created_at, updated_at) " +
+            "SELECT user_id, ? - spent, ?, ?, NOW(), NOW() FROM ledger_month_totals WHERE spent > 0 " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE " +
+            "SET remaining_points = EXCLUDED.remaining_points, updated_at = NOW() " +
+            "WHERE remaining_points.remaining_points <> EXCLUDED.remaining_points";
+
+    private static final String RESET_REMAINING_SQL =
+            "UPDATE remaining_points r SET remaining_points = ?, updated_at = NOW() " +
+            "WHERE r.month = ? AND r.year = ? AND r.remaining_points <> ? AND NOT EXISTS (" +
+            "SELECT 1 FROM ledger_month_totals l WHERE l.user_id = r.user_id AND l.spent > 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean appendOnly;
+
+    @Value("${app.max-points-per-month}")
+    private Integer maxPointsPerMonth;
+
+    // Transactions newer than this may still be uncommitted, so snapshots stop short of them
+    @Value("${app.ledger.snapshot-lag-ms:60000}")
+    private long snapshotLagMs;
+
+    public LedgerService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         MeterRegistry meterRegistry, @Value("${app.ledger.mode:" + MODE_MUTABLE + "}") String mode) {
+        if (!MODE_MUTABLE.equals(mode) && !MODE_APPEND_ONLY.equals(mode)) {
+            throw new IllegalStateException("Unknown app.ledger.mode: " + mode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.appendOnly = MODE_APPEND_ONLY.equals(mode);
+    }
+
+    public boolean isAppendOnly() {
+        return appendOnly;
+    }
+
+    /**
+     * Locks the sender until the surrounding transaction ends and checks that they can still
+     * spend {@code points} this month. Returns the balance left after spending them, or empty
+     * if it is too low. The caller records the spend by inserting the transactions in the same
+     * database transaction, which keeps concurrent donations from the same sender serialized.
+     */
+    public Optional<Integer> lockAndCheckSpendable(String senderId, int points, YearMonth yearMonth) {
+        jdbcTemplate.queryForList(LOCK_SENDER_SQL, SENDER_LOCK_NAMESPACE, senderId);
+        int remaining = maxPointsPerMonth - totals(senderId, yearMonth).getSpent();
+        return remaining >= points ? Optional.of(remaining - points) : Optional.empty();
+    }
+
+    public Totals totals(String userId, YearMonth yearMonth) {
+        return queryTotals(TOTALS_BY_USER_ID_SQL, userId, yearMonth);
+    }
+
+    public Totals totalsBySlackId(String slackId, YearMonth yearMonth) {
+        return queryTotals(TOTALS_BY_SLACK_ID_SQL, slackId, yearMonth);
+    }
+
+    /**
+     * Totals for several users with one query, keyed by user ID.
+     */
+    public Map<String, Totals> totals(Collection<String> userIds, YearMonth yearMonth) {
+        LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime monthEnd = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+        Object[] ids = userIds.toArray();
+        Map<String, Totals> totals = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(TOTALS_BY_USER_IDS_SQL);
+            statement.setObject(1, monthStart);
+            statement.setObject(2, monthEnd);
+            statement.setObject(3, monthStart);
+            statement.setObject(4, monthEnd);
+            statement.setArray(5, connection.createArrayOf("varchar", ids));
+            statement.setInt(6, yearMonth.getMonthValue());
+            statement.setInt(7, yearMonth.getYear());
+            return statement;
+        }, (resultSet, rowNum) -> totals.put(resultSet.getString(1), new Totals(resultSet.getInt(2), resultSet.getInt(3))));
+        return totals;
+    }
+
+    /**
+     * Folds the ledger tail into balance_snapshots and refreshes the materialized balances.
+     * Only one instance does the work at a time.
+     */
+    @Scheduled(fixedDelayString = "${app.ledger.snapshot-interval-ms:60000}",
+            initialDelayString = "${app.ledger.snapshot-interval-ms:60000}")
+    public void snapshotAndRefresh() {
+        if (!appendOnly) {
+            return;
+        }
+        YearMonth currentMonth = YearMonth.now();
+        Boolean ran = transactionTemplate.execute(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SNAPSHOT_SQL, Boolean.class, SNAPSHOT_LOCK_KEY))) {
+                return false;
+            }
+            LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(snapshotLagMs));
+            // Finish the previous month once its last transactions are past the lag
+            advanceSnapshots(currentMonth.minusMonths(1), cutoff);
+            advanceSnapshots(currentMonth, cutoff);
+            return true;
+        });
+        if (Boolean.TRUE.equals(ran)) {
+            rebuildMonth(currentMonth);
+        }
+    }
+
+    /**
+     * Recomputes current_scores and remaining_points for a month from the ledger in one pass
+     * over its transactions. Both tables are locked against writes for the duration, so in
+     * mutable mode a donation cannot commit between reading the ledger and overwriting its scores.
+     *
+     * @return the number of rows changed
+     */
+    public int rebuildMonth(YearMonth yearMonth) {
+        int month = yearMonth.getMonthValue();
+        int year = yearMonth.getYear();
+        LocalDateTime from = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime to = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        Integer changed = transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(LOCK_BALANCES_SQL);
+            jdbcTemplate.update(CREATE_MONTH_TOTALS_SQL, from, to, from, to);
+            return jdbcTemplate.update(UPSERT_SCORES_SQL, month, year)
+                    + jdbcTemplate.update(RESET_SCORES_SQL, month, year)
+                    + jdbcTemplate.update(UPSERT_REMAINING_SQL, maxPointsPerMonth, month, year)
+                    + jdbcTemplate.update(RESET_REMAINING_SQL, maxPointsPerMonth, month, year, maxPointsPerMonth);
+        });
+
+        long durationNs = sample.stop(meterRegistry.timer("ledger.rebuild.duration"));
+        log.info("Rebuilt balances for {}/{} from the ledger: {} rows changed in {}ms",
+                month, year, changed, durationNs / 1_000_000);
+        return changed != null ? changed : 0;
+    }
+
+    private void advanceSnapshots(YearMonth yearMonth, LocalDateTime cutoff) {
+        int month = yearMonth.getMonthValue();
+        int year = yearMonth.getYear();
+        LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime monthEnd = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+
+        LocalDateTime lastCutoff = jdbcTemplate.queryForObject(LAST_CUTOFF_SQL, LocalDateTime.class, month, year);
+        LocalDateTime from = lastCutoff != null ? lastCutoff : monthStart;
+        LocalDateTime to = cutoff.isBefore(monthEnd) ? cutoff : monthEnd;
+        if (!from.isBefore(to)) {
+            return;
+        }
+        int users = jdbcTemplate.update(ADVANCE_SNAPSHOTS_SQL, month, year, to, from, to, from, to);
+        log.debug("Advanced {} balance snapshots for {}/{} to {}", users, month, year, to);
+    }
+
+    private Totals queryTotals(String sql, String key, YearMonth yearMonth) {
+        LocalDateTime monthStart = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime monthEnd = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+        List<Totals> rows = jdbcTemplate.query(sql,
+                (resultSet, rowNum) -> new Totals(resultSet.getInt(2), resultSet.getInt(3)),
+                monthStart, monthEnd, monthStart, monthEnd, key, yearMonth.getMonthValue(), yearMonth.getYear());
+        return rows.isEmpty() ? new Totals(0, 0) : rows.get(0);
+    }
+
+    public static final class Totals {
+        private final int received;
+        private final int spent;
+
+        private Totals(int received, int spent) {
+            this.received = received;
+            this.spent = spent;
+        }
+
+        public int getReceived() { return received; }
+        public int getSpent() { return spent; }
+    }
+}
@@ -0,0 +1,105 @@
+package com.leap.donate.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+
+/**
+ * Set-based monthly rollover. Each chunk is a single INSERT ... SELECT committed on its own,
+ * and every statement skips rows that already exist, so a failed run can simply be restarted.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class MonthlyRolloverService {
+
+    private static final String NEXT_USER_BOUNDARY_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?) chunk";
+
+    private static final String INSERT_REMAINING_POINTS_SQL =
+            "INSERT INTO remaining_points (user_id, remaining_points, month, year, created_at, updated_at) " +
+            "SELECT u.id, ?, ?, ?, NOW(), NOW() FROM users u WHERE u.id > ? AND u.id <= ? " +
+            "ON CONFLICT (user_id, month, year) DO NOTHING";
+
+    private static final String NEXT_SCORE_BOUNDARY_SQL =
+            "SELECT MAX(id) FROM (SELECT id FROM current_scores WHERE month = ? AND year = ? AND id > ? " +
+            "ORDER BY id LIMIT ?) chunk";
+
+    private static final String ARCHIVE_SCORES_SQL =
+            "INSERT INTO history_scores (user_id, username, score, month, year, created_at) " +
+            "SELECT c.user_id, u.username, c.score, c.month, c.year, NOW() " +
+            "FROM current_scores c JOIN users u ON u.id = c.user_id " +
+            "WHERE c.month = ? AND c.year = ? AND c.id > ? AND c.id <= ? " +
+            "AND NOT EXISTS (SELECT 1 FROM history_scores h " +
+            "WHERE h.user_id = c.user_id AND h.month = c.month AND h.year = c.year)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.rollover.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Copies a month's scores into history_scores, chunked by current_scores ID.
+     *
+     * @return the number of history rows inserted by this run
+     */
+    public long archiveScores(int month, int year) {
+        log.info("Archiving scores for {}/{} in chunks of {}", month, year, chunkSize);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Counter archived = meterRegistry.counter("rollover.rows", "step", "archive");
+
+        long total = 0;
+        long lowerBound = 0;
+        Long upperBound;
+        while ((upperBound = jdbcTemplate.queryForObject(
+                NEXT_SCORE_BOUNDARY_SQL, Long.class, month, year, lowerBound, chunkSize)) != null) {
+            int inserted = jdbcTemplate.update(ARCHIVE_SCORES_SQL, month, year, lowerBound, upperBound);
+            total += inserted;
+            archived.increment(inserted);
+            lowerBound = upperBound;
+            log.debug("Archived {} scores up to current_scores.id {}", total, upperBound);
+        }
+
+        long durationNs = sample.stop(meterRegistry.timer("rollover.duration", "step", "archive"));
+        log.info("Archived {} scores for {}/{} in {}ms", total, month, year, durationNs / 1_000_000);
+        return total;
+    }
+
+    /**
+     * Creates the month's remaining_points row for every user, chunked by user ID.
+     *
+     * @return the number of rows created by this run
+     */
+    public long createRemainingPoints(YearMonth yearMonth, int initialPoints) {
+        int month = yearMonth.getMonthValue();
+        int year = yearMonth.getYear();
+        log.info("Creating remaining coins for {}/{} in chunks of {}", month, year, chunkSize);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Counter created = meterRegistry.counter("rollover.rows", "step", "remaining_points");
+
+        long total = 0;
+        String lowerBound = "";
+        String upperBound;
+        while ((upperBound = jdbcTemplate.queryForObject(
+                NEXT_USER_BOUNDARY_SQL, String.class, lowerBound, chunkSize)) != null) {
+            int inserted = jdbcTemplate.update(INSERT_REMAINING_POINTS_SQL,
+                    initialPoints, month, year, lowerBound, upperBound);
+            total += inserted;
+            created.increment(inserted);
+            lowerBound = upperBound;
+            log.debug("Created {} remaining coins rows up to user {}", total, upperBound);
+        }
+
+        long durationNs = sample.stop(meterRegistry.timer("rollover.duration", "step", "remaining_points"));
+        log.info("Created {} remaining coins rows for {}/{} in {}ms", total, month, year, durationNs / 1_000_000);
+        return total;
+    }
+}
@@ -0,0 +1,39 @@
+package com.leap.donate.service;
+
+import com.slack.api.methods.SlackApiException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+
+/**
+ * Records per-stage latency of slash command processing as the {@code donate.stage} timer,
+ * tagged by command and stage and published with percentile histograms.
+ */
+@Service
+@RequiredArgsConstructor
+public class PipelineMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    public <T> T time(String command, String stage, Stage<T> work) throws IOException, SlackApiException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return work.call();
+        } finally {
+            sample.stop(Timer.builder("donate.stage")
+                    .description("Latency of a slash command processing stage")
+                    .tag("command", command)
+                    .tag("stage", stage)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    @FunctionalInterface
+    public interface Stage<T> {
+        T call() throws IOException, SlackApiException;
+    }
+}
@@ -0,0 +1,106 @@
+package com.leap.donate.service;
+
+import com.leap.donate.repository.TransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory sliding-window counter of donations per sender, keyed by Slack user ID.
+ * Each sender keeps a ring buffer of their last {@code max-donations} timestamps; the
+ * sender is limited while the oldest of those is still inside the window. A donation
+ * counts once however many recipients it has.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class RecentDonationTracker {
+
+    private final TransactionRepository transactionRepository;
+
+    @Value("${app.donation-limit.window-minutes:5}")
+    private long windowMinutes;
+
+    @Value("${app.donation-limit.max-donations:10}")
+    private int maxDonations;
+
+    private final Map<String, SenderWindow> windows = new ConcurrentHashMap<>();
+
+    public boolean isLimited(String slackUserId) {
+        SenderWindow window = windows.get(slackUserId);
+        return window != null && window.oldest() > windowStart();
+    }
+
+    public void record(String slackUserId) {
+        record(slackUserId, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(windowMinutes);
+        List<Object[]> recent = transactionRepository.findSenderSlackIdsAndDonationTimesSince(since);
+        ZoneId zone = ZoneId.systemDefault();
+        recent.forEach(row -> {
+            if (row[0] != null) {
+                record((String) row[0], ((LocalDateTime) row[1]).atZone(zone).toInstant().toEpochMilli());
+            }
+        });
+        log.info("Warmed donation rate tracker with {} recent donations", recent.size());
+    }
+
+    @Scheduled(fixedDelayString = "${app.donation-limit.cleanup-interval-ms:60000}")
+    public void evictIdleSenders() {
+        long windowStart = windowStart();
+        // Re-checked under the entry's lock so a donation recorded concurrently is not removed with it
+        windows.keySet().forEach(slackUserId -> windows.computeIfPresent(slackUserId,
+                (id, window) -> window.newest() <= windowStart ? null : window));
+    }
+
+    // Added inside compute so eviction cannot drop the window between lookup and add
+    private void record(String slackUserId, long timestampMs) {
+        windows.compute(slackUserId, (id, window) -> {
+            SenderWindow target = window != null ? window : new SenderWindow(maxDonations);
+            target.add(timestampMs);
+            return target;
+        });
+    }
+
+    private long windowStart() {
+        return System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(windowMinutes);
+    }
+
+    private static final class SenderWindow {
+        private final AtomicLongArray timestamps;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private SenderWindow(int size) {
+            this.timestamps = new AtomicLongArray(size);
+        }
+
+        private void add(long timestampMs) {
+            timestamps.set(Math.floorMod(next.getAndIncrement(), timestamps.length()), timestampMs);
+        }
+
+        // The slot about to be overwritten holds the oldest timestamp (0 until the buffer fills)
+        private long oldest() {
+            return timestamps.get(Math.floorMod(next.get(), timestamps.length()));
+        }
+
+        private long newest() {
+            return timestamps.get(Math.floorMod(next.get() - 1, timestamps.length()));
+        }
+    }
+}
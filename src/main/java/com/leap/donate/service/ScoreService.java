@@ -5,6 +5,7 @@ import com.leap.donate.model.HistoryScore;
 import com.leap.donate.model.RemainingPoints;
 import com.leap.donate.model.User;
 
+import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,6 +14,9 @@ public interface ScoreService {
     RemainingPoints getRemainingPoints(User user);
     CurrentScore addPoints(User user, int points);
     RemainingPoints deductPoints(User user, int points);
+    Optional<Integer> transferPoints(User sender, User recipient, int points);
+    Optional<Integer> transferPoints(User sender, List<User> recipients, int pointsEach);
+    int rebuildBalances(YearMonth yearMonth);
     void resetMonthlyScores();
     void archiveScores(int month, int year);
     List<CurrentScore> getTopScores(int limit);
@@ -0,0 +1,174 @@
+package com.leap.donate.service;
+
+import com.slack.api.Slack;
+import com.slack.api.methods.Methods;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiResponse;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared Slack Web API client. Each method call first takes a token from a local bucket
+ * sized to the method's Slack rate tier, waiting up to {@code app.slack-api.max-wait-ms}
+ * for one. A 429 pauses that method for the Retry-After period and the call is retried,
+ * so bursts slow down instead of failing. Only when a call cannot go out within the wait
+ * budget, or keeps being rate limited, does it fail with 429 TOO_MANY_REQUESTS.
+ */
+@Service
+@Slf4j
+public class SlackApiClient {
+
+    // Requests per minute allowed by Slack's rate tiers; chat.postMessage is limited per channel at about 1/s
+    private static final int TIER_2 = 20;
+    private static final int TIER_3 = 50;
+    private static final int TIER_4 = 100;
+    private static final int POST_MESSAGE = 60;
+
+    private static final Map<String, Integer> REQUESTS_PER_MINUTE = Map.of(
+            Methods.USERS_LIST, TIER_2,
+            Methods.USERS_INFO, TIER_4,
+            Methods.CONVERSATIONS_LIST, TIER_2,
+            Methods.CONVERSATIONS_CREATE, TIER_2,
+            Methods.CONVERSATIONS_MEMBERS, TIER_4,
+            Methods.CONVERSATIONS_INVITE, TIER_3,
+            Methods.CHAT_POST_MESSAGE, POST_MESSAGE,
+            Methods.CHAT_POST_EPHEMERAL, TIER_4);
+
+    private static final String RATE_LIMITED_MESSAGE =
+            "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience.";
+
+    private final MethodsClient methods;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodLimiter> limiters = new ConcurrentHashMap<>();
+
+    @Value("${app.slack-api.max-wait-ms:5000}")
+    private long maxWaitMs;
+
+    @Value("${app.slack-api.max-retries:3}")
+    private int maxRetries;
+
+    public SlackApiClient(Slack slack, MeterRegistry meterRegistry, @Value("${slack.bot-token}") String botToken) {
+        this.methods = slack.methods(botToken);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Calls a Web API method, e.g. {@code call(Methods.USERS_INFO, m -> m.usersInfo(request))}.
+     * The method name selects the rate tier and tags the metrics.
+     */
+    public <T extends SlackApiResponse> T call(String method, ApiCall<T> call) throws IOException, SlackApiException {
+        MethodLimiter limiter = limiters.computeIfAbsent(method, this::newLimiter);
+        for (int attempt = 0; ; attempt++) {
+            acquire(method, limiter);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                T response = call.call(methods);
+                countCall(method, response.isOk() ? "ok" : "error");
+                return response;
+            } catch (SlackApiException e) {
+                if (e.getResponse().code() != HttpStatus.TOO_MANY_REQUESTS.value()) {
+                    countCall(method, "error");
+                    throw e;
+                }
+                countCall(method, "rate_limited");
+                long retryAfterMs = retryAfterMs(e);
+                limiter.pauseFor(retryAfterMs);
+                meterRegistry.counter("slack.api.throttled", "method", method, "reason", "retry_after").increment();
+                if (attempt >= maxRetries) {
+                    log.warn("Slack {} still rate limited after {} retries", method, attempt);
+                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE);
+                }
+                log.debug("Slack {} rate limited, retrying after {}ms", method, retryAfterMs);
+            } catch (IOException | RuntimeException e) {
+                countCall(method, "exception");
+                throw e;
+            } finally {
+                sample.stop(meterRegistry.timer("slack.api.latency", "method", method));
+            }
+        }
+    }
+
+    private void acquire(String method, MethodLimiter limiter) {
+        long startedAt = System.nanoTime();
+        try {
+            long pausedMs = limiter.pausedUntil - System.currentTimeMillis();
+            if (pausedMs > maxWaitMs) {
+                throttled(method);
+            }
+            if (pausedMs > 0) {
+                Thread.sleep(pausedMs);
+            }
+            long remainingMs = maxWaitMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+            if (!limiter.bucket.asBlocking().tryConsume(1, Duration.ofMillis(Math.max(remainingMs, 0)))) {
+                throttled(method);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE);
+        } finally {
+            meterRegistry.timer("slack.api.wait", "method", method).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void throttled(String method) {
+        meterRegistry.counter("slack.api.throttled", "method", method, "reason", "local_limit").increment();
+        log.warn("Slack {} call could not be sent within {}ms", method, maxWaitMs);
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, RATE_LIMITED_MESSAGE);
+    }
+
+    private void countCall(String method, String outcome) {
+        meterRegistry.counter("slack.api.calls", "method", method, "outcome", outcome).increment();
+    }
+
+    private static long retryAfterMs(SlackApiException e) {
+        String retryAfter = e.getResponse().header("Retry-After");
+        if (retryAfter != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+            } catch (NumberFormatException ignored) {
+                // Fall through to the default
+            }
+        }
+        return TimeUnit.SECONDS.toMillis(1);
+    }
+
+    private MethodLimiter newLimiter(String method) {
+        int perMinute = REQUESTS_PER_MINUTE.getOrDefault(method, TIER_3);
+        return new MethodLimiter(Bucket.builder()
+                .addLimit(Bandwidth.simple(perMinute, Duration.ofMinutes(1)))
+                .build());
+    }
+
+    private static final class MethodLimiter {
+        private final Bucket bucket;
+        // Set from Retry-After; no call for the method goes out before this time
+        private volatile long pausedUntil;
+
+        private MethodLimiter(Bucket bucket) {
+            this.bucket = bucket;
+        }
+
+        private synchronized void pauseFor(long millis) {
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + millis);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ApiCall<T> {
+        T call(MethodsClient methods) throws IOException, SlackApiException;
+    }
+}
@@ -11,10 +11,12 @@ public interface SlackService {
     void postMessage(String channelId, String message) throws IOException, SlackApiException;
     void postEphemeralMessage(String channelId, String userId, String message) throws IOException, SlackApiException;
     String createOrGetDonateChannel() throws IOException, SlackApiException;
-    void addUsersToDonateChannel(String channelId) throws IOException, SlackApiException;
+    void evictDonateChannel(String channelId);
+    ChannelSyncReport addUsersToDonateChannel(String channelId) throws IOException, SlackApiException;
     List<User> getAllWorkspaceUsers() throws IOException, SlackApiException;
     User getSlackUserById(String userId) throws IOException, SlackApiException;
     User getSlackUserByUsername(String username) throws IOException, SlackApiException;
     SlashCommandResponse buildSlashCommandResponse(String text);
     SlashCommandResponse buildErrorResponse(String error);
+    void respond(String responseUrl, SlashCommandResponse response) throws IOException;
 } 
\ No newline at end of file
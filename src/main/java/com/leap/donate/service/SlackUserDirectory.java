@@ -0,0 +1,285 @@
+package com.leap.donate.service;
+
+import com.slack.api.methods.Methods;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.users.UsersInfoRequest;
+import com.slack.api.methods.request.users.UsersListRequest;
+import com.slack.api.methods.response.users.UsersInfoResponse;
+import com.slack.api.methods.response.users.UsersListResponse;
+import com.slack.api.model.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory directory of Slack workspace members indexed by ID and username.
+ * Stale entries are served while a single background refresh reloads the full list,
+ * and team_join/user_change events keep the indexes current between refreshes. Events that
+ * arrive before the first load or while a reload runs are replayed onto the loaded index, and
+ * after a failed load no new users.list call starts until a backoff delay has passed.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlackUserDirectory {
+
+    private static final int PAGE_SIZE = 200;
+
+    private final SlackApiClient slackApiClient;
+
+    @Value("${slack.user-directory.refresh-interval-ms:3600000}")
+    private long refreshIntervalMs;
+
+    @Value("${slack.user-directory.retry-base-delay-ms:30000}")
+    private long retryBaseDelayMs;
+
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slack-user-directory");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<CompletableFuture<Index>> inFlight = new AtomicReference<>();
+    private volatile Index index;
+
+    // Guards pendingUpserts, loading and the hand-over from a finished load to index
+    private final Object upsertLock = new Object();
+    private final Map<String, User> pendingUpserts = new LinkedHashMap<>();
+    private boolean loading;
+
+    private volatile CompletableFuture<Index> lastFailure;
+    private volatile long retryAt;
+    private int consecutiveFailures;
+
+    /**
+     * Finds a member by Slack user ID. Members missing from the index (e.g. someone who joined
+     * before the team_join event arrived) are fetched individually with users.info.
+     */
+    public Optional<User> findById(String userId) throws IOException, SlackApiException {
+        User user = current().byId.get(userId);
+        if (user != null) {
+            return Optional.of(user);
+        }
+
+        log.debug("User {} not in directory, fetching with users.info", userId);
+        UsersInfoResponse response = slackApiClient.call(Methods.USERS_INFO, methods -> methods.usersInfo(
+                UsersInfoRequest.builder()
+                        .user(userId)
+                        .build()));
+        if (!response.isOk() || response.getUser() == null) {
+            log.debug("users.info returned no user for {}: {}", userId, response.getError());
+            return Optional.empty();
+        }
+        upsert(response.getUser());
+        return Optional.of(response.getUser());
+    }
+
+    public Optional<User> findByUsername(String username) throws IOException, SlackApiException {
+        return Optional.ofNullable(current().byName.get(username));
+    }
+
+    public List<User> getAllUsers() throws IOException, SlackApiException {
+        return new ArrayList<>(current().byId.values());
+    }
+
+    /**
+     * Applies an incremental update from a team_join or user_change event.
+     */
+    public void upsert(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        synchronized (upsertLock) {
+            Index current = index;
+            if (current == null) {
+                pendingUpserts.put(user.getId(), user);
+                log.debug("Queued directory entry for user {} until the first load", user.getId());
+                return;
+            }
+            // A load in flight may have fetched this user before the change; replay it when it is installed
+            if (loading) {
+                pendingUpserts.put(user.getId(), user);
+            }
+            apply(current, user);
+        }
+        log.debug("Updated directory entry for user {}", user.getId());
+    }
+
+    /**
+     * Reloads the full member list, blocking until the load completes.
+     */
+    public void refresh() throws IOException, SlackApiException {
+        await(load(false));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private Index current() throws IOException, SlackApiException {
+        Index current = index;
+        boolean backingOff = System.currentTimeMillis() < retryAt;
+        if (current == null) {
+            CompletableFuture<Index> failure = lastFailure;
+            return await(backingOff && failure != null ? failure : load(false));
+        }
+        if (!backingOff && System.currentTimeMillis() - current.loadedAt >= refreshIntervalMs) {
+            load(true);
+        }
+        return current;
+    }
+
+    /**
+     * Starts a load unless one is already running, in which case callers share its result.
+     */
+    private CompletableFuture<Index> load(boolean async) {
+        while (true) {
+            CompletableFuture<Index> existing = inFlight.get();
+            if (existing != null) {
+                return existing;
+            }
+            CompletableFuture<Index> future = new CompletableFuture<>();
+            if (!inFlight.compareAndSet(null, future)) {
+                continue;
+            }
+            Runnable task = () -> {
+                try {
+                    synchronized (upsertLock) {
+                        loading = true;
+                    }
+                    Index loaded = fetchIndex();
+                    install(loaded);
+                    future.complete(loaded);
+                } catch (Exception e) {
+                    future.completeExceptionally(e);
+                    recordFailure(future, e);
+                } finally {
+                    inFlight.compareAndSet(future, null);
+                }
+            };
+            if (async) {
+                refreshExecutor.execute(task);
+            } else {
+                task.run();
+            }
+            return future;
+        }
+    }
+
+    private void install(Index loaded) {
+        synchronized (upsertLock) {
+            pendingUpserts.values().forEach(user -> apply(loaded, user));
+            pendingUpserts.clear();
+            index = loaded;
+            loading = false;
+            lastFailure = null;
+            retryAt = 0;
+            consecutiveFailures = 0;
+        }
+    }
+
+    private void recordFailure(CompletableFuture<Index> failed, Exception e) {
+        synchronized (upsertLock) {
+            loading = false;
+            // Without an index the queued events are still needed for the first successful load
+            if (index != null) {
+                pendingUpserts.clear();
+            }
+            long delayMs = Math.min(retryBaseDelayMs << Math.min(consecutiveFailures, 10), refreshIntervalMs);
+            consecutiveFailures++;
+            lastFailure = failed;
+            retryAt = System.currentTimeMillis() + delayMs;
+            log.warn("Failed to load Slack user directory (attempt {}), not retrying for {}ms: {}",
+                    consecutiveFailures, delayMs, e.getMessage());
+        }
+    }
+
+    private static void apply(Index target, User user) {
+        User previous = target.byId.put(user.getId(), user);
+        if (previous != null && previous.getName() != null && !previous.getName().equals(user.getName())) {
+            target.byName.remove(previous.getName(), previous);
+        }
+        if (user.getName() != null) {
+            target.byName.put(user.getName(), user);
+        }
+    }
+
+    private Index await(CompletableFuture<Index> future) throws IOException, SlackApiException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof SlackApiException) {
+                throw (SlackApiException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    private Index fetchIndex() throws IOException, SlackApiException {
+        log.debug("Loading Slack user directory");
+        Map<String, User> byId = new ConcurrentHashMap<>();
+        Map<String, User> byName = new ConcurrentHashMap<>();
+
+        String cursor = null;
+        do {
+            UsersListRequest request = UsersListRequest.builder()
+                    .cursor(cursor)
+                    .limit(PAGE_SIZE)
+                    .build();
+            UsersListResponse response = slackApiClient.call(Methods.USERS_LIST, methods -> methods.usersList(request));
+
+            if (!response.isOk()) {
+                log.error("Failed to get users: {}", response.getError());
+                throw new RuntimeException("Failed to get users: " + response.getError());
+            }
+
+            if (response.getMembers() != null) {
+                for (User member : response.getMembers()) {
+                    byId.put(member.getId(), member);
+                    if (member.getName() != null) {
+                        byName.put(member.getName(), member);
+                    }
+                }
+            }
+            cursor = response.getResponseMetadata() != null ? response.getResponseMetadata().getNextCursor() : null;
+        } while (cursor != null && !cursor.isEmpty());
+
+        log.info("Loaded {} Slack users into directory", byId.size());
+        return new Index(byId, byName, System.currentTimeMillis());
+    }
+
+    private static final class Index {
+        private final Map<String, User> byId;
+        private final Map<String, User> byName;
+        private final long loadedAt;
+
+        private Index(Map<String, User> byId, Map<String, User> byName, long loadedAt) {
+            this.byId = byId;
+            this.byName = byName;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.leap.donate.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the Slack user directory and the donate channel ID in the background once the app
+ * is serving requests, then syncs the channel's members. Failed attempts are retried with
+ * backoff. {@link com.leap.donate.config.WarmUpReadinessConfig} keeps
+ * /actuator/health/readiness OUT_OF_SERVICE until both caches are loaded, so it only turns UP
+ * once commands can be served without waiting on Slack; liveness and the invite sync do not
+ * depend on it.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SlackWarmUpService {
+
+    private final SlackUserDirectory slackUserDirectory;
+    private final SlackService slackService;
+
+    @Value("${app.warm-up.retry-base-delay-ms:5000}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.warm-up.retry-max-delay-ms:300000}")
+    private long retryMaxDelayMs;
+
+    private final ScheduledExecutorService warmUpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "slack-warm-up");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean warm;
+    private volatile int attempts;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        warmUpExecutor.execute(this::warmUp);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmUpExecutor.shutdownNow();
+    }
+
+    private void warmUp() {
+        int attempt = ++attempts;
+        long startedAt = System.currentTimeMillis();
+        String channelId;
+        try {
+            log.info("Warming up Slack caches (attempt {})", attempt);
+            slackUserDirectory.refresh();
+            channelId = slackService.createOrGetDonateChannel();
+            warm = true;
+            log.info("Slack caches warm after {}ms", System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            // Exponential backoff capped at the configured maximum
+            long delayMs = Math.min(retryBaseDelayMs * (1L << Math.min(attempt - 1, 20)), retryMaxDelayMs);
+            log.warn("Slack warm-up attempt {} failed, retrying in {}ms: {}", attempt, delayMs, e.getMessage());
+            warmUpExecutor.schedule(this::warmUp, delayMs, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        try {
+            log.info("Donate channel sync: {}", slackService.addUsersToDonateChannel(channelId));
+        } catch (Exception e) {
+            log.error("Error syncing donate channel members", e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.leap.donate.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Keeps the monthly partitions of transactions ahead of time. Partitions for the next
+ * {@code app.transactions.partitions.months-ahead} months are created at startup and daily,
+ * and with {@code app.transactions.partitions.retain-months} set, partitions older than that
+ * are detached. Detached partitions stay in the database as standalone tables. Only one
+ * instance updates the partitions at a time.
+ */
+@Service
+@Slf4j
+public class TransactionPartitionService {
+
+    private static final String PARTITION_PREFIX = "transactions_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuu_MM");
+    private static final String DEFAULT_PARTITION = "transactions_default";
+    // Detaching the previous month would hide transactions the rollover and ledger still read
+    private static final int MIN_RETAIN_MONTHS = 2;
+
+    private static final String LIST_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'transactions'::regclass";
+
+    private static final String COUNT_DEFAULT_ROWS_SQL = "SELECT COUNT(*) FROM " + DEFAULT_PARTITION;
+
+    // Partition names and bounds below come from YearMonth values, never from input
+    private static final String CREATE_PARTITION_TABLE_SQL =
+            "CREATE TABLE %s (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)";
+
+    // Rows that went to the default partition have to move before the range can be attached
+    private static final String MOVE_DEFAULT_ROWS_SQL =
+            "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE created_at >= ? AND created_at < ? " +
+            "RETURNING id, sender_id, recipient_id, amount, message, created_at) " +
+            "INSERT INTO %s (id, sender_id, recipient_id, amount, message, created_at) SELECT * FROM moved";
+
+    private static final String ATTACH_PARTITION_SQL =
+            "ALTER TABLE transactions ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String DETACH_PARTITION_SQL = "ALTER TABLE transactions DETACH PARTITION %s";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final JobLockService jobLockService;
+
+    @Value("${app.transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.transactions.partitions.retain-months:0}")
+    private int retainMonths;
+
+    public TransactionPartitionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       MeterRegistry meterRegistry, JobLockService jobLockService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.jobLockService = jobLockService;
+    }
+
+    public static String partitionName(YearMonth yearMonth) {
+        return PARTITION_PREFIX + yearMonth.format(PARTITION_SUFFIX);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.transactions.partitions.cron:0 30 1 * * ?}")
+    public void maintainPartitions() {
+        jobLockService.runExclusive("transaction-partitions", this::updatePartitions);
+    }
+
+    private void updatePartitions() {
+        Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList(LIST_PARTITIONS_SQL, String.class));
+        YearMonth currentMonth = YearMonth.now();
+
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth yearMonth = currentMonth.plusMonths(i);
+            if (!partitions.contains(partitionName(yearMonth))) {
+                createPartition(yearMonth);
+            }
+        }
+
+        if (retainMonths > 0) {
+            YearMonth oldestRetained = currentMonth.minusMonths(Math.max(retainMonths, MIN_RETAIN_MONTHS) - 1);
+            partitions.stream()
+                    .filter(name -> name.startsWith(PARTITION_PREFIX))
+                    .filter(name -> {
+                        YearMonth yearMonth = parseMonth(name);
+                        return yearMonth != null && yearMonth.isBefore(oldestRetained);
+                    })
+                    .sorted()
+                    .forEach(this::detachPartition);
+        }
+
+        Long defaultRows = jdbcTemplate.queryForObject(COUNT_DEFAULT_ROWS_SQL, Long.class);
+        if (defaultRows != null && defaultRows > 0) {
+            log.warn("{} transactions are in {}; they move out when their month's partition is created",
+                    defaultRows, DEFAULT_PARTITION);
+        }
+    }
+
+    private void createPartition(YearMonth yearMonth) {
+        String name = partitionName(yearMonth);
+        LocalDateTime from = yearMonth.atDay(1).atStartOfDay();
+        LocalDateTime to = yearMonth.plusMonths(1).atDay(1).atStartOfDay();
+        try {
+            Integer moved = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute(String.format(CREATE_PARTITION_TABLE_SQL, name));
+                int rows = jdbcTemplate.update(String.format(MOVE_DEFAULT_ROWS_SQL, name), from, to);
+                jdbcTemplate.execute(String.format(ATTACH_PARTITION_SQL, name,
+                        yearMonth.atDay(1), yearMonth.plusMonths(1).atDay(1)));
+                return rows;
+            });
+            meterRegistry.counter("transactions.partitions", "action", "created").increment();
+            log.info("Created transactions partition {} ({} rows moved from {})", name, moved, DEFAULT_PARTITION);
+        } catch (DataAccessException e) {
+            log.error("Error creating transactions partition {}: {}", name, e.getMessage());
+        }
+    }
+
+    private void detachPartition(String name) {
+        try {
+            jdbcTemplate.execute(String.format(DETACH_PARTITION_SQL, name));
+            meterRegistry.counter("transactions.partitions", "action", "detached").increment();
+            log.info("Detached transactions partition {}", name);
+        } catch (DataAccessException e) {
+            log.error("Error detaching transactions partition {}: {}", name, e.getMessage());
+        }
+    }
+
+    private static YearMonth parseMonth(String partitionName) {
+        try {
+            return YearMonth.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 public interface TransactionService {
     
@@ -16,6 +17,13 @@ public interface TransactionService {
         String message
     );
     
+    List<Transaction> createTransactions(
+        User sender, 
+        List<User> recipients, 
+        int amount, 
+        String message
+    );
+    
     Page<Transaction> getTransactionsBySender(User sender, Pageable pageable);
     
     Page<Transaction> getTransactionsByRecipient(User recipient, Pageable pageable);
@@ -39,6 +47,4 @@ public interface TransactionService {
         LocalDateTime end, 
         Pageable pageable
     );
-    
-    boolean hasRecentTransactions(String userId, int count);
 } 
\ No newline at end of file
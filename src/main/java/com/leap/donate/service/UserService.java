@@ -13,4 +13,6 @@ public interface UserService {
     List<User> findAllUsersExcept(String userId);
     User getOrCreateUserFromSlack(String userId, String username, String realName, String slackId);
     List<User> getAllUsers();
+    Optional<User> updateFromSlackProfile(String slackId, String username, String realName, boolean deleted);
+    void evictUser(String slackId);
 } 
\ No newline at end of file
@@ -1,14 +1,18 @@
 package com.leap.donate.service.impl;
 
-import com.leap.donate.model.CurrentScore;
-import com.leap.donate.model.RemainingPoints;
 import com.leap.donate.model.Transaction;
 import com.leap.donate.model.User;
+import com.leap.donate.service.AnnouncementOutboxService;
+import com.leap.donate.service.BalanceCache;
 import com.leap.donate.service.DonateService;
+import com.leap.donate.service.Leaderboard;
+import com.leap.donate.service.PipelineMetrics;
+import com.leap.donate.service.RecentDonationTracker;
 import com.leap.donate.service.ScoreService;
 import com.leap.donate.service.SlackService;
 import com.leap.donate.service.TransactionService;
 import com.leap.donate.service.UserService;
+import com.leap.donate.service.utils.TransactionUtils;
 import com.slack.api.app_backend.slash_commands.response.SlashCommandResponse;
 import com.slack.api.methods.SlackApiException;
 import lombok.RequiredArgsConstructor;
@@ -18,12 +22,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -34,17 +38,26 @@ public class DonateServiceImpl implements DonateService {
     private final ScoreService scoreService;
     private final TransactionService transactionService;
     private final SlackService slackService;
+    private final AnnouncementOutboxService announcementOutboxService;
+    private final Leaderboard leaderboard;
+    private final BalanceCache balanceCache;
+    private final RecentDonationTracker recentDonationTracker;
+    private final PipelineMetrics pipelineMetrics;
     private final Random random = new Random();
 
     @Value("${app.max-points-per-month}")
     private Integer maxPointsPerMonth;
 
+    @Value("${app.donation.max-recipients:10}")
+    private int maxRecipients;
+
     @Value("${slack.donate-channel-name}")
     private String donateChannelName;
 
-    // Regex pattern to match the donation command format: /i-want-to-give @username {score} message
-    private static final Pattern DONATION_PATTERN = Pattern.compile(
-            "(?i)\\s*@([\\w.-]+)\\s+(\\d+)\\s+(.+)\\s*");
+    // Command tags for stage metrics
+    private static final String GIVE = "/i-want-to-give";
+    private static final String MINE = "/mine";
+    private static final String TOP_TEN = "/top-ten";
 
     @Override
     @Transactional
@@ -52,24 +65,35 @@ public class DonateServiceImpl implements DonateService {
         log.debug("Processing give points command from user {}: {}", userId, text);
         
         try {
+            // Enforce the anti-spam limit before any Slack or database work
+            if (recentDonationTracker.isLimited(userId)) {
+                throw new SecurityException("Too many transactions in a short period. Please wait a few minutes.");
+            }
+            
             // Parse command and validate input
-            DonationCommand donationCommand = parseDonationCommand(text);
+            DonationCommand donationCommand = pipelineMetrics.time(GIVE, "parse", () -> parseDonationCommand(text));
             if (donationCommand == null) {
-                return slackService.buildErrorResponse("Invalid format. Use: `/i-want-to-give @username {score} message`");
+                return slackService.buildErrorResponse("Invalid format. Use: `/i-want-to-give @username [@username ...] {score} message`");
+            }
+            if (donationCommand.getRecipients().size() > maxRecipients) {
+                return slackService.buildErrorResponse("You can give to at most " + maxRecipients + " people at once.");
             }
 
             // Get and validate users
-            User sender = getValidatedSender(userId);
-            User recipient = getValidatedRecipient(donationCommand.getRecipientUsername());
+            User sender = pipelineMetrics.time(GIVE, "sender_lookup", () -> getValidatedSender(userId));
+            List<User> recipients = pipelineMetrics.time(GIVE, "recipient_lookup", () -> getValidatedRecipients(donationCommand));
             
             // Validate transaction
-            validateTransaction(sender, recipient, donationCommand.getPoints());
+            pipelineMetrics.time(GIVE, "validation", () -> {
+                validateTransaction(sender, recipients, donationCommand.getPoints());
+                return null;
+            });
             
             // Process the donation
-            processDonation(sender, recipient, donationCommand);
+            int remainingPoints = processDonation(sender, recipients, donationCommand);
             
             // Return success response
-            return buildSuccessResponse(sender, recipient, donationCommand);
+            return buildSuccessResponse(recipients, donationCommand, remainingPoints);
             
         } catch (SecurityException e) {
             log.warn("Security violation: {}", e.getMessage());
@@ -80,42 +104,40 @@ public class DonateServiceImpl implements DonateService {
         }
     }
 
-    private static class DonationCommand {
-        private final String recipientUsername;
+    // Package-private so the JMH benchmarks can exercise parsing and formatting directly
+    static class DonationCommand {
+        private final List<Recipient> recipients;
+        // Given to each recipient
         private final int points;
         private final String message;
 
-        public DonationCommand(String recipientUsername, int points, String message) {
-            this.recipientUsername = recipientUsername;
+        public DonationCommand(List<Recipient> recipients, int points, String message) {
+            this.recipients = recipients;
             this.points = points;
             this.message = message;
         }
 
-        public String getRecipientUsername() { return recipientUsername; }
+        public List<Recipient> getRecipients() { return recipients; }
         public int getPoints() { return points; }
         public String getMessage() { return message; }
     }
 
-    private DonationCommand parseDonationCommand(String text) {
-        Matcher matcher = DONATION_PATTERN.matcher(text);
-        if (!matcher.matches()) {
-            return null;
-        }
+    static class Recipient {
+        // Set when the recipient came as an escaped mention (<@U123|name>), null for a plain @name
+        private final String id;
+        private final String username;
 
-        String recipientUsername = matcher.group(1);
-        int points;
-        try {
-            points = Integer.parseInt(matcher.group(2));
-        } catch (NumberFormatException e) {
-            throw new RuntimeException("Invalid coins value. Must be a number.");
+        public Recipient(String id, String username) {
+            this.id = id;
+            this.username = username;
         }
 
-        if (points <= 0) {
-            throw new RuntimeException("Coins must be greater than 0.");
-        }
+        public String getId() { return id; }
+        public String getUsername() { return username; }
+    }
 
-        String message = matcher.group(3);
-        return new DonationCommand(recipientUsername, points, message);
+    static DonationCommand parseDonationCommand(String text) {
+        return DonationCommandParser.parse(text);
     }
 
     private User getValidatedSender(String userId) throws IOException, SlackApiException {
@@ -133,8 +155,21 @@ public class DonateServiceImpl implements DonateService {
         }
     }
 
-    private User getValidatedRecipient(String recipientUsername) throws IOException, SlackApiException {
-        com.slack.api.model.User slackRecipient = slackService.getSlackUserByUsername(recipientUsername);
+    private List<User> getValidatedRecipients(DonationCommand command) throws IOException, SlackApiException {
+        // Keyed by user ID so the same person mentioned twice (e.g. by name and by mention) gets points once
+        Map<String, User> recipients = new LinkedHashMap<>();
+        for (Recipient recipient : command.getRecipients()) {
+            User user = getValidatedRecipient(recipient);
+            recipients.putIfAbsent(user.getId(), user);
+        }
+        return new ArrayList<>(recipients.values());
+    }
+
+    private User getValidatedRecipient(Recipient recipient) throws IOException, SlackApiException {
+        // An escaped mention already names the user, so there is no need to resolve the username
+        com.slack.api.model.User slackRecipient = recipient.getId() != null
+                ? slackService.getSlackUserById(recipient.getId())
+                : slackService.getSlackUserByUsername(recipient.getUsername());
         try {
             return userService.getOrCreateUserFromSlack(
                     slackRecipient.getId(),
@@ -144,13 +179,13 @@ public class DonateServiceImpl implements DonateService {
             );
         } catch (RuntimeException e) {
             log.error("Error getting validated recipient", e);
-            throw new RuntimeException("Recipient user @" + recipientUsername + " is not registered in the workspace.");
+            throw new RuntimeException("Recipient user @" + recipient.getUsername() + " is not registered in the workspace.");
         }
     }
 
-    private void validateTransaction(User sender, User recipient, int points) {
-        // Validate sender and recipient
-        if (sender == null || recipient == null) {
+    private void validateTransaction(User sender, List<User> recipients, int points) {
+        // Validate sender and recipients
+        if (sender == null || recipients.isEmpty()) {
             throw new SecurityException("Invalid sender or recipient");
         }
 
@@ -158,77 +193,90 @@ public class DonateServiceImpl implements DonateService {
         if (sender.getStatus() == User.UserStatus.DEACTIVATED) {
             throw new SecurityException("Your account is deactivated. Please contact an administrator.");
         }
-        if (recipient.getStatus() == User.UserStatus.DEACTIVATED) {
-            throw new SecurityException("Cannot give points to a deactivated user.");
-        }
+        for (User recipient : recipients) {
+            if (recipient.getStatus() == User.UserStatus.DEACTIVATED) {
+                throw new SecurityException("Cannot give points to a deactivated user: <@" + recipient.getSlackId() + ">.");
+            }
 
-        // Prevent self-donation
-        if (sender.getId().equals(recipient.getId())) {
-            throw new SecurityException("Cannot give points to yourself");
+            // Prevent self-donation
+            if (sender.getId().equals(recipient.getId())) {
+                throw new SecurityException("Cannot give points to yourself");
+            }
         }
 
-        // Validate points amount
-        if (points <= 0 || points > maxPointsPerMonth) {
+        // Validate points amount; the whole donation has to fit in one month's allowance
+        if (points <= 0 || (long) points * recipients.size() > maxPointsPerMonth) {
             throw new SecurityException("Invalid points amount");
         }
-
-        // Check for suspicious patterns
-        if (transactionService.hasRecentTransactions(sender.getId(), 10)) {
-            throw new SecurityException("Too many transactions in a short period. Please wait a few minutes.");
-        }
-        
-        // Validate remaining points
-        RemainingPoints remainingPoints = scoreService.getRemainingPoints(sender);
-        if (remainingPoints.getRemainingPoints() < points) {
-            throw new SecurityException("Not enough points to give. You have " + remainingPoints.getRemainingPoints() + " points remaining.");
-        }
     }
 
-    private void processDonation(User sender, User recipient, DonationCommand command) throws IOException, SlackApiException {
-        // Deduct points from sender
-        scoreService.deductPoints(sender, command.getPoints());
-        
-        // Add points to recipient
-        scoreService.addPoints(recipient, command.getPoints());
+    private int processDonation(User sender, List<User> recipients, DonationCommand command) throws IOException, SlackApiException {
+        int total = command.getPoints() * recipients.size();
+
+        // Move points atomically; the sender's balance is checked once for the total by the deduction itself
+        Integer remainingPoints = pipelineMetrics.time(GIVE, "score_update",
+                () -> scoreService.transferPoints(sender, recipients, command.getPoints()))
+                .orElseThrow(() -> new SecurityException("Not enough points to give " + total + ". You have "
+                        + currentRemainingPoints(sender) + " points remaining."));
         
-        // Create transaction record
-        transactionService.createTransaction(sender, recipient, command.getPoints(), command.getMessage());
+        // Create transaction records
+        pipelineMetrics.time(GIVE, "transaction_insert",
+                () -> transactionService.createTransactions(sender, recipients, command.getPoints(), command.getMessage()));
         
-        // Post message to donate channel
-        String donateChannelId = slackService.createOrGetDonateChannel();
+        // Queue one announcement for all recipients; it is posted to the donate channel after commit
         String announcementMessage = String.format(
-                "@here <@%s> gives %d to <@%s>: \"%s\"",
-                sender.getSlackId(), command.getPoints(), recipient.getSlackId(), command.getMessage()
+                "@here <@%s> gives %d to %s: \"%s\"",
+                sender.getSlackId(), command.getPoints(), mentions(recipients), command.getMessage()
         );
-        slackService.postMessage(donateChannelId, announcementMessage);
+        pipelineMetrics.time(GIVE, "announcement_enqueue", () -> announcementOutboxService.enqueue(announcementMessage));
+        
+        // Count the donation towards the sender's anti-spam window once it commits
+        TransactionUtils.afterCommit(() -> recentDonationTracker.record(sender.getSlackId()));
+        return remainingPoints;
     }
 
-    private SlashCommandResponse buildSuccessResponse(User sender, User recipient, DonationCommand command) {
-        RemainingPoints remainingPoints = scoreService.getRemainingPoints(sender);
+    // "<@a>", "<@a> and <@b>", "<@a>, <@b> and <@c>"
+    private static String mentions(List<User> users) {
+        StringBuilder mentions = new StringBuilder();
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                mentions.append(i == users.size() - 1 ? " and " : ", ");
+            }
+            mentions.append("<@").append(users.get(i).getSlackId()).append('>');
+        }
+        return mentions.toString();
+    }
+
+    // Read through the balance cache so the answer is right in either ledger mode
+    private int currentRemainingPoints(User user) {
+        return balanceCache.get(user.getSlackId(), YearMonth.now()).getRemainingPoints();
+    }
+
+    private SlashCommandResponse buildSuccessResponse(List<User> recipients, DonationCommand command, int remainingPoints) {
+        if (recipients.size() == 1) {
+            return slackService.buildSlashCommandResponse(
+                    String.format("Successfully gave %d coins to <@%s>. You have %d coins remaining.",
+                            command.getPoints(), recipients.get(0).getSlackId(), remainingPoints));
+        }
         return slackService.buildSlashCommandResponse(
-                String.format("Successfully gave %d coins to <@%s>. You have %d coins remaining.",
-                        command.getPoints(), recipient.getSlackId(), remainingPoints.getRemainingPoints()));
+                String.format("Successfully gave %d coins each to %s (%d coins in total). You have %d coins remaining.",
+                        command.getPoints(), mentions(recipients), command.getPoints() * recipients.size(), remainingPoints));
     }
 
+    /**
+     * Answers /mine from the balance cache. Nothing is written: months without rows show
+     * the defaults, and the user is identified by Slack ID without a Slack API call.
+     */
     @Override
-    @Transactional
     public SlashCommandResponse showUserInfo(String userId, String channelId) throws IOException, SlackApiException {
         log.debug("Processing me command from user {}", userId);
         
         try {
-            User user = getUserFromSlack(userId);
-            
-            // Get user's current score and remaining points
-            CurrentScore currentScore = scoreService.getCurrentScore(user);
-            RemainingPoints remainingPoints = scoreService.getRemainingPoints(user);
-            
-            // Build response
-            StringBuilder response = new StringBuilder();
-            response.append("*Your Detail Coins*\n");
-            response.append("Current Coins: ").append(currentScore.getScore()).append(" coins\n");
-            response.append("Remaining Coins to Give: ").append(remainingPoints.getRemainingPoints()).append("/").append(maxPointsPerMonth).append("\n");
+            BalanceCache.Balance balance = pipelineMetrics.time(MINE, "balance_lookup",
+                    () -> balanceCache.get(userId, YearMonth.now()));
             
-            return slackService.buildSlashCommandResponse(response.toString());
+            return slackService.buildSlashCommandResponse(formatUserInfo(
+                    balance.getScore(), balance.getRemainingPoints(), maxPointsPerMonth));
             
         } catch (RuntimeException e) {
             log.error("Error showing user info", e);
@@ -236,26 +284,11 @@ public class DonateServiceImpl implements DonateService {
         }
     }
 
-    private User getUserFromSlack(String userId) throws IOException, SlackApiException {
-        com.slack.api.model.User slackUser = slackService.getSlackUserById(userId);
-        try {
-            return userService.getOrCreateUserFromSlack(
-                    slackUser.getId(),
-                    slackUser.getName(),
-                    slackUser.getRealName(),
-                    slackUser.getId()
-            );
-        } catch (RuntimeException e) {
-            log.error("Error getting user from Slack", e);
-            throw new RuntimeException("You are not registered in the workspace. Please contact an administrator.");
-        }
-    }
-
     @Override
     public SlashCommandResponse showHelp() {
         StringBuilder helpText = new StringBuilder();
         helpText.append("*Available Commands:*\n\n");
-        helpText.append("*/i-want-to-give @username <amount>* - Give coins to someone\n");
+        helpText.append("*/i-want-to-give @username [@username ...] <amount> <message>* - Give coins to one or more people\n");
         helpText.append("*/mine* - Show your current coin balance\n");
         helpText.append("*/top-ten* - Show top 10 users with highest coins this month\n");
         helpText.append("*/help* - Show this help message\n");
@@ -267,33 +300,38 @@ public class DonateServiceImpl implements DonateService {
         log.info("Showing top 10 users for current month");
         
         // Get current month and year
-        LocalDate now = LocalDate.now();
-        int currentMonth = now.getMonthValue();
-        int currentYear = now.getYear();
+        YearMonth now = YearMonth.now();
         
-        // Get top 10 users for current month (only active users)
-        List<CurrentScore> topScores = scoreService.getTop10Scores(currentMonth, currentYear)
-            .stream()
-            .filter(score -> score.getUser().getStatus() == User.UserStatus.ACTIVE)
-            .collect(Collectors.toList());
+        // Get top 10 active users for current month from the in-memory leaderboard
+        List<Leaderboard.Entry> topScores = pipelineMetrics.time(TOP_TEN, "leaderboard", () -> leaderboard.top(now, 10));
         
         if (topScores.isEmpty()) {
             return slackService.buildSlashCommandResponse("No coins recorded for this month yet.");
         }
         
-        // Build response message
-        StringBuilder message = new StringBuilder("*Top 10 Users for " + now.getMonth().toString() + " " + currentYear + "*\n\n");
+        return slackService.buildSlashCommandResponse(formatTopTen(now, topScores));
+    }
+
+    static String formatUserInfo(int score, int remainingPoints, int maxPointsPerMonth) {
+        StringBuilder response = new StringBuilder();
+        response.append("*Your Detail Coins*\n");
+        response.append("Current Coins: ").append(score).append(" coins\n");
+        response.append("Remaining Coins to Give: ").append(remainingPoints).append("/").append(maxPointsPerMonth).append("\n");
+        return response.toString();
+    }
+
+    static String formatTopTen(YearMonth yearMonth, List<Leaderboard.Entry> topScores) {
+        StringBuilder message = new StringBuilder("*Top 10 Users for " + yearMonth.getMonth().toString() + " " + yearMonth.getYear() + "*\n\n");
         
         for (int i = 0; i < topScores.size(); i++) {
-            CurrentScore score = topScores.get(i);
-            String displayName = score.getUser().getRealName() != null ? score.getUser().getRealName() : score.getUser().getUsername();
+            Leaderboard.Entry score = topScores.get(i);
             
             message.append(String.format("%d. *%s* - %d coins%n", 
                 i + 1, 
-                displayName,
+                score.getDisplayName(),
                 score.getScore()));
         }
         
-        return slackService.buildSlashCommandResponse(message.toString());
+        return message.toString();
     }
 } 
\ No newline at end of file
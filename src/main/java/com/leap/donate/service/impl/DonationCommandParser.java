@@ -0,0 +1,128 @@
+package com.leap.donate.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass tokenizer for /i-want-to-give text: {@code <recipient>... <amount> <message>}.
+ * Each recipient is either an escaped mention ({@code <@U123|name>} or {@code <@U123>}), which
+ * already carries the Slack user ID, or a plain {@code @name}. Returns null when the text does
+ * not have that shape.
+ */
+final class DonationCommandParser {
+
+    private DonationCommandParser() {
+    }
+
+    static DonateServiceImpl.DonationCommand parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        int pos = skipWhitespace(text, 0);
+
+        List<DonateServiceImpl.Recipient> recipients = new ArrayList<>(2);
+        while (true) {
+            String recipientId = null;
+            String recipientUsername;
+            if (text.startsWith("<@", pos)) {
+                int idStart = pos + 2;
+                int idEnd = idStart;
+                while (idEnd < length && isIdChar(text.charAt(idEnd))) {
+                    idEnd++;
+                }
+                if (idEnd == idStart || idEnd == length) {
+                    return null;
+                }
+                int close = idEnd;
+                if (text.charAt(idEnd) == '|') {
+                    close = text.indexOf('>', idEnd + 1);
+                    if (close < 0) {
+                        return null;
+                    }
+                } else if (text.charAt(idEnd) != '>') {
+                    return null;
+                }
+                recipientId = text.substring(idStart, idEnd);
+                // Older clients may omit the name; the ID is what identifies the recipient
+                recipientUsername = close > idEnd + 1 ? text.substring(idEnd + 1, close) : recipientId;
+                pos = close + 1;
+            } else if (pos < length && text.charAt(pos) == '@') {
+                int nameStart = pos + 1;
+                int nameEnd = nameStart;
+                while (nameEnd < length && isNameChar(text.charAt(nameEnd))) {
+                    nameEnd++;
+                }
+                if (nameEnd == nameStart) {
+                    return null;
+                }
+                recipientUsername = text.substring(nameStart, nameEnd);
+                pos = nameEnd;
+            } else if (recipients.isEmpty()) {
+                return null;
+            } else {
+                break;
+            }
+            recipients.add(new DonateServiceImpl.Recipient(recipientId, recipientUsername));
+
+            int next = skipWhitespace(text, pos);
+            if (next == pos) {
+                // Mentions and the amount must be separated by whitespace
+                return null;
+            }
+            pos = next;
+        }
+
+        int amountStart = pos;
+        long points = 0;
+        while (pos < length && isDigit(text.charAt(pos))) {
+            points = points * 10 + (text.charAt(pos) - '0');
+            if (points > Integer.MAX_VALUE) {
+                throw new RuntimeException("Invalid coins value. Must be a number.");
+            }
+            pos++;
+        }
+        if (pos == amountStart) {
+            return null;
+        }
+
+        int messageStart = skipWhitespace(text, pos);
+        if (messageStart == pos || messageStart == length) {
+            return null;
+        }
+        int messageEnd = length;
+        while (isWhitespace(text.charAt(messageEnd - 1))) {
+            messageEnd--;
+        }
+
+        if (points <= 0) {
+            throw new RuntimeException("Coins must be greater than 0.");
+        }
+        return new DonateServiceImpl.DonationCommand(recipients, (int) points,
+                text.substring(messageStart, messageEnd));
+    }
+
+    private static int skipWhitespace(String text, int pos) {
+        while (pos < text.length() && isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Slack user IDs are upper-case alphanumerics (U..., or W... on Enterprise Grid)
+    private static boolean isIdChar(char c) {
+        return isDigit(c) || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(char c) {
+        return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '.' || c == '-';
+    }
+}
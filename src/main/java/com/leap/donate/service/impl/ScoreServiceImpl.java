@@ -7,18 +7,26 @@ import com.leap.donate.model.User;
 import com.leap.donate.repository.CurrentScoreRepository;
 import com.leap.donate.repository.HistoryScoreRepository;
 import com.leap.donate.repository.RemainingPointsRepository;
-import com.leap.donate.repository.UserRepository;
+import com.leap.donate.service.BalanceCache;
+import com.leap.donate.service.Leaderboard;
+import com.leap.donate.service.LedgerService;
+import com.leap.donate.service.MonthlyRolloverService;
 import com.leap.donate.service.ScoreService;
+import com.leap.donate.service.utils.TransactionUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Array;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
-import java.time.Month;
 import java.time.YearMonth;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -27,10 +35,22 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScoreServiceImpl implements ScoreService {
 
+    // Rows are inserted in user ID order so concurrent batches lock current_scores rows in the same order
+    private static final String BATCH_ADD_SCORE_SQL =
+            "INSERT INTO current_scores (user_id, score, month, year, created_at, updated_at) " +
+            "SELECT r.user_id, ?, ?, ?, NOW(), NOW() FROM unnest(?) AS r(user_id) ORDER BY r.user_id " +
+            "ON CONFLICT (user_id, month, year) DO UPDATE " +
+            "SET score = current_scores.score + EXCLUDED.score, updated_at = NOW() " +
+            "RETURNING current_scores.user_id, current_scores.score";
+
     private final CurrentScoreRepository currentScoreRepository;
     private final RemainingPointsRepository remainingPointsRepository;
     private final HistoryScoreRepository historyScoreRepository;
-    private final UserRepository userRepository;
+    private final MonthlyRolloverService monthlyRolloverService;
+    private final Leaderboard leaderboard;
+    private final BalanceCache balanceCache;
+    private final LedgerService ledgerService;
+    private final JdbcTemplate jdbcTemplate;
 
     @Value("${app.max-points-per-month}")
     private Integer maxPointsPerMonth;
@@ -62,7 +82,14 @@ public class ScoreServiceImpl implements ScoreService {
         CurrentScore currentScore = getCurrentScore(user);
         currentScore.setScore(currentScore.getScore() + points);
         currentScore.setUpdatedAt(LocalDateTime.now());
-        return currentScoreRepository.save(currentScore);
+        CurrentScore saved = currentScoreRepository.save(currentScore);
+        int newScore = saved.getScore();
+        YearMonth yearMonth = YearMonth.of(saved.getYear(), saved.getMonth());
+        TransactionUtils.afterCommit(() -> {
+            leaderboard.recordScore(user, yearMonth, newScore);
+            balanceCache.evict(user.getSlackId(), yearMonth);
+        });
+        return saved;
     }
 
     @Override
@@ -77,51 +104,160 @@ public class ScoreServiceImpl implements ScoreService {
         
         remainingPoints.setRemainingPoints(remainingPoints.getRemainingPoints() - points);
         remainingPoints.setUpdatedAt(LocalDateTime.now());
-        return remainingPointsRepository.save(remainingPoints);
+        RemainingPoints saved = remainingPointsRepository.save(remainingPoints);
+        YearMonth yearMonth = YearMonth.of(saved.getYear(), saved.getMonth());
+        TransactionUtils.afterCommit(() -> balanceCache.evict(user.getSlackId(), yearMonth));
+        return saved;
     }
 
+    /**
+     * Moves points from sender to recipient with two atomic statements. The sender's balance
+     * check happens inside the conditional deduction, so concurrent donations cannot overdraw
+     * or lose updates. Returns the sender's new balance, or empty if the balance was too low.
+     */
     @Override
     @Transactional
+    public Optional<Integer> transferPoints(User sender, User recipient, int points) {
+        if (ledgerService.isAppendOnly()) {
+            return transferPoints(sender, List.of(recipient), points);
+        }
+        log.debug("Transferring {} coins from {} to {}", points, sender.getUsername(), recipient.getUsername());
+        YearMonth currentYearMonth = YearMonth.now();
+        int month = currentYearMonth.getMonthValue();
+        int year = currentYearMonth.getYear();
+
+        Optional<Integer> senderRemaining = remainingPointsRepository.deductIfSufficient(
+                sender.getId(), points, maxPointsPerMonth, month, year);
+        if (senderRemaining.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int recipientScore = currentScoreRepository.upsertAddScore(recipient.getId(), points, month, year);
+        TransactionUtils.afterCommit(() -> {
+            leaderboard.recordScore(recipient, currentYearMonth, recipientScore);
+            balanceCache.evict(sender.getSlackId(), currentYearMonth);
+            balanceCache.evict(recipient.getSlackId(), currentYearMonth);
+        });
+        return senderRemaining;
+    }
+
+    /**
+     * Moves {@code pointsEach} to every recipient. The sender's balance is checked and deducted once
+     * for the total, and all recipient scores are added with a single upsert. Recipients must be
+     * distinct. Returns the sender's new balance, or empty if the balance was too low.
+     */
+    @Override
+    @Transactional
+    public Optional<Integer> transferPoints(User sender, List<User> recipients, int pointsEach) {
+        if (ledgerService.isAppendOnly()) {
+            return transferOnLedger(sender, recipients, pointsEach);
+        }
+        if (recipients.size() == 1) {
+            return transferPoints(sender, recipients.get(0), pointsEach);
+        }
+        int total = pointsEach * recipients.size();
+        log.debug("Transferring {} coins each from {} to {} recipients", pointsEach, sender.getUsername(), recipients.size());
+        YearMonth currentYearMonth = YearMonth.now();
+        int month = currentYearMonth.getMonthValue();
+        int year = currentYearMonth.getYear();
+
+        Optional<Integer> senderRemaining = remainingPointsRepository.deductIfSufficient(
+                sender.getId(), total, maxPointsPerMonth, month, year);
+        if (senderRemaining.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Object[] recipientIds = recipients.stream().map(User::getId).toArray();
+        Map<String, Integer> newScores = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BATCH_ADD_SCORE_SQL);
+            Array ids = connection.createArrayOf("varchar", recipientIds);
+            statement.setInt(1, pointsEach);
+            statement.setInt(2, month);
+            statement.setInt(3, year);
+            statement.setArray(4, ids);
+            return statement;
+        }, (resultSet, rowNum) -> newScores.put(resultSet.getString(1), resultSet.getInt(2)));
+
+        TransactionUtils.afterCommit(() -> {
+            balanceCache.evict(sender.getSlackId(), currentYearMonth);
+            recipients.forEach(recipient -> {
+                leaderboard.recordScore(recipient, currentYearMonth, newScores.get(recipient.getId()));
+                balanceCache.evict(recipient.getSlackId(), currentYearMonth);
+            });
+        });
+        return senderRemaining;
+    }
+
+    /**
+     * Append-only transfer: nothing is written here. The sender is locked and their balance checked
+     * against the ledger, and the transactions the caller inserts in the same database transaction
+     * record the transfer. current_scores and remaining_points catch up on the next ledger rebuild.
+     */
+    private Optional<Integer> transferOnLedger(User sender, List<User> recipients, int pointsEach) {
+        log.debug("Checking {} coins each from {} to {} recipients against the ledger",
+                pointsEach, sender.getUsername(), recipients.size());
+        YearMonth currentYearMonth = YearMonth.now();
+        Optional<Integer> senderRemaining = ledgerService.lockAndCheckSpendable(
+                sender.getId(), pointsEach * recipients.size(), currentYearMonth);
+        if (senderRemaining.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, LedgerService.Totals> recipientTotals = ledgerService.totals(
+                recipients.stream().map(User::getId).collect(Collectors.toList()), currentYearMonth);
+        Map<String, Integer> newScores = new HashMap<>();
+        recipients.forEach(recipient -> {
+            LedgerService.Totals totals = recipientTotals.get(recipient.getId());
+            newScores.put(recipient.getId(), (totals != null ? totals.getReceived() : 0) + pointsEach);
+        });
+
+        TransactionUtils.afterCommit(() -> {
+            balanceCache.evict(sender.getSlackId(), currentYearMonth);
+            recipients.forEach(recipient -> {
+                leaderboard.recordScore(recipient, currentYearMonth, newScores.get(recipient.getId()));
+                balanceCache.evict(recipient.getSlackId(), currentYearMonth);
+            });
+        });
+        return senderRemaining;
+    }
+
+    @Override
+    public int rebuildBalances(YearMonth yearMonth) {
+        int changed = ledgerService.rebuildMonth(yearMonth);
+        balanceCache.clear();
+        // A repair may lower scores, which the merging resync would keep showing
+        if (yearMonth.equals(YearMonth.now())) {
+            leaderboard.reload(yearMonth);
+        }
+        return changed;
+    }
+
+    @Override
     public void resetMonthlyScores() {
         log.info("Resetting monthly scores and remaining coins");
+        long startedAt = System.currentTimeMillis();
         
         // Get the previous month and year
         YearMonth previousMonth = YearMonth.now().minusMonths(1);
-        int month = previousMonth.getMonthValue();
-        int year = previousMonth.getYear();
+
+        // In append-only mode the score tables may lag the ledger; bring them up to date first
+        if (ledgerService.isAppendOnly()) {
+            ledgerService.rebuildMonth(previousMonth);
+        }
         
         // Archive scores from the previous month
-        archiveScores(month, year);
+        archiveScores(previousMonth.getMonthValue(), previousMonth.getYear());
         
-        // Create new remaining coins entries for all users
-        userRepository.findAll().forEach(user -> {
-            YearMonth currentYearMonth = YearMonth.now();
-            // Check if user already has an entry for the current month
-            if (remainingPointsRepository.findByUserAndMonthAndYear(
-                    user, currentYearMonth.getMonthValue(), currentYearMonth.getYear()).isEmpty()) {
-                createRemainingPoints(user, maxPointsPerMonth);
-            }
-        });
+        // Create new remaining coins entries for all users; existing entries are left untouched
+        monthlyRolloverService.createRemainingPoints(YearMonth.now(), maxPointsPerMonth);
+        
+        log.info("Monthly reset completed in {}ms", System.currentTimeMillis() - startedAt);
     }
 
     @Override
-    @Transactional
     public void archiveScores(int month, int year) {
-        log.info("Archiving scores for {}/{}", month, year);
-        
-        List<CurrentScore> scoresToArchive = currentScoreRepository.findAllByMonthAndYear(month, year);
-        
-        // Convert and save current scores to history
-        scoresToArchive.forEach(score -> {
-            historyScoreRepository.save(HistoryScore.builder()
-                    .user(score.getUser())
-                    .username(score.getUser().getUsername())
-                    .score(score.getScore())
-                    .month(score.getMonth())
-                    .year(score.getYear())
-                    .createdAt(LocalDateTime.now())
-                    .build());
-        });
+        monthlyRolloverService.archiveScores(month, year);
     }
 
     @Override
@@ -1,40 +1,47 @@
 package com.leap.donate.service.impl;
 
 import com.leap.donate.model.User;
+import com.leap.donate.service.ChannelSyncReport;
+import com.leap.donate.service.SlackApiClient;
 import com.leap.donate.service.SlackService;
+import com.leap.donate.service.SlackUserDirectory;
 import com.leap.donate.service.UserService;
-import com.leap.donate.service.utils.JsonUtils;
 import com.slack.api.Slack;
 import com.slack.api.app_backend.slash_commands.response.SlashCommandResponse;
-import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.Methods;
 import com.slack.api.methods.SlackApiException;
 import com.slack.api.methods.request.conversations.ConversationsCreateRequest;
 import com.slack.api.methods.request.conversations.ConversationsInviteRequest;
 import com.slack.api.methods.request.conversations.ConversationsListRequest;
 import com.slack.api.methods.request.chat.ChatPostMessageRequest;
 import com.slack.api.methods.request.chat.ChatPostEphemeralRequest;
-import com.slack.api.methods.request.users.UsersListRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
 import com.slack.api.methods.response.conversations.ConversationsCreateResponse;
+import com.slack.api.methods.response.conversations.ConversationsInviteResponse;
 import com.slack.api.methods.response.conversations.ConversationsListResponse;
-import com.slack.api.methods.response.users.UsersListResponse;
+import com.slack.api.methods.response.conversations.ConversationsMembersResponse;
 import com.slack.api.model.Conversation;
 import com.slack.api.model.ConversationType;
+import com.slack.api.util.json.GsonFactory;
+import com.slack.api.webhook.WebhookResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.boot.json.JsonParser;
-import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.Callable;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,74 +50,124 @@ import java.util.stream.Collectors;
 public class SlackServiceImpl implements SlackService {
 
     private final Slack slack;
+    private final SlackApiClient slackApiClient;
     private final UserService userService;
-    private final Environment environment;
-
-    @Value("${slack.bot-token}")
-    private String botToken;
+    private final SlackUserDirectory slackUserDirectory;
+    private final ThreadPoolTaskExecutor channelInviteExecutor;
 
     @Value("${slack.donate-channel-name}")
     private String donateChannelName;
-    
-    // Add cache for users
-    private List<com.slack.api.model.User> cachedUsers = null;
-    private long lastUserFetchTime = 0;
-    private static final long USER_CACHE_DURATION = 3600000; // 1 hour in milliseconds
+
+    private static final int CHANNEL_PAGE_SIZE = 1000;
+    private static final int MEMBER_PAGE_SIZE = 1000;
+    // Slackbot is listed as a regular user but cannot be invited to channels
+    private static final String SLACKBOT_ID = "USLACKBOT";
+
+    // conversations.invite accepts at most 1000 user IDs per call
+    @Value("${app.channel-sync.invite-batch-size:1000}")
+    private int inviteBatchSize;
+
+    // Resolved once and kept until a rename, archive or delete event evicts it
+    private final Object donateChannelLock = new Object();
+    private volatile String donateChannelId;
 
     @Override
     public void postMessage(String channelId, String message) throws IOException, SlackApiException {
         log.debug("Posting message to channel {}: {}", channelId, message);
-        MethodsClient methods = slack.methods(botToken);
-        methods.chatPostMessage(ChatPostMessageRequest.builder()
-                .channel(channelId)
-                .text(message)
-                .mrkdwn(true)
-                .build());
+        ChatPostMessageResponse response = slackApiClient.call(Methods.CHAT_POST_MESSAGE, methods -> methods.chatPostMessage(
+                ChatPostMessageRequest.builder()
+                        .channel(channelId)
+                        .text(message)
+                        .mrkdwn(true)
+                        .build()));
+        
+        if (!response.isOk()) {
+            if ("channel_not_found".equals(response.getError()) || "is_archived".equals(response.getError())) {
+                evictDonateChannel(channelId);
+            }
+            log.error("Failed to post message to channel {}: {}", channelId, response.getError());
+            throw new RuntimeException("Failed to post message: " + response.getError());
+        }
     }
 
     @Override
     public void postEphemeralMessage(String channelId, String userId, String message) throws IOException, SlackApiException {
         log.debug("Posting ephemeral message to user {} in channel {}: {}", userId, channelId, message);
-        MethodsClient methods = slack.methods(botToken);
-        methods.chatPostEphemeral(ChatPostEphemeralRequest.builder()
+        slackApiClient.call(Methods.CHAT_POST_EPHEMERAL, methods -> methods.chatPostEphemeral(ChatPostEphemeralRequest.builder()
                 .channel(channelId)
                 .user(userId)
                 .text(message)
-                .build());
+                .build()));
     }
 
     @Override
     public String createOrGetDonateChannel() throws IOException, SlackApiException {
-        log.debug("Creating or getting donate channel: " + donateChannelName);
-        MethodsClient methods = slack.methods(botToken);
-        
-        // Check if channel already exists
-        ConversationsListRequest listRequest = ConversationsListRequest.builder()
-                .types(Collections.singletonList(ConversationType.PUBLIC_CHANNEL))
-                .build();
-        ConversationsListResponse listResponse = methods.conversationsList(listRequest);
-        
-        // Handle null response
-        List<Conversation> channels = listResponse.getChannels();
-        if (channels == null) {
-            log.warn("Received null channels list from Slack API");
-            channels = Collections.emptyList();
+        String channelId = donateChannelId;
+        if (channelId != null) {
+            return channelId;
         }
-        
-        Optional<Conversation> existingChannel = channels.stream()
-                .filter(channel -> channel.getName().equals(donateChannelName))
-                .findFirst();
-        
-        if (existingChannel.isPresent()) {
-            log.debug("Donate channel already exists with ID and name: {}", existingChannel.get().getId(), donateChannelName);
-            return existingChannel.get().getId();
+        synchronized (donateChannelLock) {
+            if (donateChannelId == null) {
+                donateChannelId = resolveDonateChannel();
+            }
+            return donateChannelId;
+        }
+    }
+
+    @Override
+    public void evictDonateChannel(String channelId) {
+        synchronized (donateChannelLock) {
+            if (donateChannelId != null && donateChannelId.equals(channelId)) {
+                log.info("Evicting cached donate channel ID: {}", channelId);
+                donateChannelId = null;
+            }
         }
+    }
+
+    private String resolveDonateChannel() throws IOException, SlackApiException {
+        log.debug("Creating or getting donate channel: " + donateChannelName);
+        // Check if channel already exists, following the cursor across all pages
+        String cursor = null;
+        do {
+            ConversationsListRequest listRequest = ConversationsListRequest.builder()
+                    .types(Collections.singletonList(ConversationType.PUBLIC_CHANNEL))
+                    .excludeArchived(true)
+                    .limit(CHANNEL_PAGE_SIZE)
+                    .cursor(cursor)
+                    .build();
+            ConversationsListResponse listResponse = slackApiClient.call(Methods.CONVERSATIONS_LIST,
+                    methods -> methods.conversationsList(listRequest));
+            
+            if (!listResponse.isOk()) {
+                log.error("Failed to list channels: {}", listResponse.getError());
+                throw new RuntimeException("Failed to list channels: " + listResponse.getError());
+            }
+            
+            // Handle null response
+            List<Conversation> channels = listResponse.getChannels();
+            if (channels == null) {
+                log.warn("Received null channels list from Slack API");
+                channels = Collections.emptyList();
+            }
+            
+            Optional<Conversation> existingChannel = channels.stream()
+                    .filter(channel -> donateChannelName.equals(channel.getName()))
+                    .findFirst();
+            
+            if (existingChannel.isPresent()) {
+                log.debug("Donate channel already exists with ID {} and name: {}", existingChannel.get().getId(), donateChannelName);
+                return existingChannel.get().getId();
+            }
+            
+            cursor = listResponse.getResponseMetadata() != null ? listResponse.getResponseMetadata().getNextCursor() : null;
+        } while (cursor != null && !cursor.isEmpty());
         
         // Create the channel if it doesn't exist
         log.info("Creating donate channel: {}", donateChannelName);
-        ConversationsCreateResponse createResponse = methods.conversationsCreate(ConversationsCreateRequest.builder()
-                .name(donateChannelName)
-                .build());
+        ConversationsCreateResponse createResponse = slackApiClient.call(Methods.CONVERSATIONS_CREATE,
+                methods -> methods.conversationsCreate(ConversationsCreateRequest.builder()
+                        .name(donateChannelName)
+                        .build()));
         
         if (!createResponse.isOk()) {
             log.error("Failed to create donate channel: {}", createResponse.getError());
@@ -121,181 +178,159 @@ public class SlackServiceImpl implements SlackService {
         return createResponse.getChannel().getId();
     }
 
+    /**
+     * Invites every active workspace member who is not yet in the channel. Current members are
+     * read page by page into a set, and the missing users are invited in batches of up to
+     * {@code app.channel-sync.invite-batch-size}, with at most
+     * {@code app.channel-sync.invite-concurrency} invite calls in flight.
+     */
     @Override
-    public void addUsersToDonateChannel(String channelId) throws IOException, SlackApiException {
-        log.debug("Adding users to channel: {}", channelId);
+    public ChannelSyncReport addUsersToDonateChannel(String channelId) throws IOException, SlackApiException {
+        log.debug("Syncing donate channel members: {}", channelId);
+        long startedAt = System.currentTimeMillis();
         
-        MethodsClient methods = slack.methods(botToken);
+        // Get all users from the workspace directory
+        List<com.slack.api.model.User> slackUsers = slackUserDirectory.getAllUsers();
         
-        // Get all users from Slack
-        UsersListResponse usersResponse = methods.usersList(UsersListRequest.builder().build());
+        // Only users that are active in our database are invited; they are matched on their Slack ID
+        Set<String> activeUserIds = userService.getAllUsers().stream()
+            .filter(user -> user.getStatus() == User.UserStatus.ACTIVE && user.getSlackId() != null)
+            .map(User::getSlackId)
+            .collect(Collectors.toSet());
+        List<String> eligible = slackUsers.stream()
+            .filter(user -> !user.isBot() && !user.isDeleted() && !SLACKBOT_ID.equals(user.getId()))
+            .map(com.slack.api.model.User::getId)
+            .filter(activeUserIds::contains)
+            .collect(Collectors.toList());
         
-        if (!usersResponse.isOk()) {
-            log.error("Failed to get users: {}", usersResponse.getError());
-            throw new RuntimeException("Failed to get users: " + usersResponse.getError());
-        }
+        Set<String> members = getChannelMembers(channelId);
+        List<String> missing = eligible.stream()
+            .filter(userId -> !members.contains(userId))
+            .collect(Collectors.toList());
         
-        List<com.slack.api.model.User> slackUsers = usersResponse.getMembers();
-        if (slackUsers == null) {
-            log.warn("Received null users list from Slack API");
-            slackUsers = Collections.emptyList();
+        Map<String, String> failures = new ConcurrentHashMap<>();
+        AtomicInteger invited = new AtomicInteger();
+        AtomicInteger inviteCalls = new AtomicInteger();
+        if (!missing.isEmpty()) {
+            List<CompletableFuture<Void>> batches = new ArrayList<>();
+            for (int from = 0; from < missing.size(); from += inviteBatchSize) {
+                List<String> batch = missing.subList(from, Math.min(from + inviteBatchSize, missing.size()));
+                batches.add(CompletableFuture.runAsync(
+                        () -> inviteBatch(channelId, batch, invited, inviteCalls, failures), channelInviteExecutor));
+            }
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
         }
-
-        log.debug("Slack users : {}", JsonUtils.toJson(slackUsers));
-        
-        // Get all users from our database
-        List<User> dbUsers = userService.getAllUsers();
-        Map<String, User.UserStatus> userStatusMap = dbUsers.stream()
-            .collect(Collectors.toMap(User::getId, User::getStatus));
         
-        // Get current channel members
-        var channelMembers = methods.conversationsMembers(r -> r.channel(channelId)).getMembers();
-        
-        // Invite each user to the channel
-        for (com.slack.api.model.User slackUser : slackUsers) {
-            if (!slackUser.isBot() && !slackUser.isDeleted() && 
-                userStatusMap.getOrDefault(slackUser.getId(), User.UserStatus.DEACTIVATED) == User.UserStatus.ACTIVE &&
-                !channelMembers.contains(slackUser.getId())) {
-                try {
-                    methods.conversationsInvite(ConversationsInviteRequest.builder()
-                            .channel(channelId)
-                            .users(Collections.singletonList(slackUser.getId()))
-                            .build());
-                    log.debug("Added user {} to channel", slackUser.getName());
-                } catch (SlackApiException e) {
-                    log.warn("Could not add user {} to channel: {}", slackUser.getName(), e.getMessage());
-                }
-            }
+        ChannelSyncReport report = new ChannelSyncReport(channelId, slackUsers.size(), eligible.size(),
+                eligible.size() - missing.size(), invited.get(), inviteCalls.get(), failures,
+                System.currentTimeMillis() - startedAt);
+        log.info("Donate channel sync finished: {}", report);
+        if (!failures.isEmpty()) {
+            log.warn("Could not invite {} users to channel {}: {}", failures.size(), channelId, failures);
         }
+        return report;
     }
 
-    @Override
-    public List<com.slack.api.model.User> getAllWorkspaceUsers() throws IOException, SlackApiException {
-        try {
-            // Check if cache is valid
-            long currentTime = System.currentTimeMillis();
-            if (cachedUsers != null && (currentTime - lastUserFetchTime) < USER_CACHE_DURATION) {
-                return cachedUsers;
-            }
-            
-            log.debug("Getting all workspace users");
-            
-            MethodsClient methods = slack.methods(botToken);
-            
-            UsersListResponse response = methods.usersList(UsersListRequest.builder().build());
-            
+    private Set<String> getChannelMembers(String channelId) throws IOException, SlackApiException {
+        Set<String> members = new HashSet<>();
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            ConversationsMembersResponse response = slackApiClient.call(Methods.CONVERSATIONS_MEMBERS,
+                    methods -> methods.conversationsMembers(r -> r
+                            .channel(channelId)
+                            .limit(MEMBER_PAGE_SIZE)
+                            .cursor(pageCursor)));
             if (!response.isOk()) {
-                log.error("Failed to get users: {}", response.getError());
-                throw new RuntimeException("Failed to get users: " + response.getError());
+                log.error("Failed to list members of channel {}: {}", channelId, response.getError());
+                throw new RuntimeException("Failed to list channel members: " + response.getError());
             }
-            
-            List<com.slack.api.model.User> members = response.getMembers();
-            if (members == null) {
-                log.warn("Received null members list from Slack API");
-                return new ArrayList<>();
+            if (response.getMembers() != null) {
+                members.addAll(response.getMembers());
             }
-            
-            // Update cache before returning
-            cachedUsers = members.stream()
-                    .filter(user -> !user.isBot() && !user.isDeleted())
-                    .collect(Collectors.toList());
-            lastUserFetchTime = currentTime;
-            
-            return cachedUsers;
-        } catch (SlackApiException e) {
-            if (e.getResponse().code() == 429) {
-                throw new ResponseStatusException(
-                    HttpStatus.TOO_MANY_REQUESTS,
-                    "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience."
-                );
+            cursor = response.getResponseMetadata() != null ? response.getResponseMetadata().getNextCursor() : null;
+        } while (cursor != null && !cursor.isEmpty());
+        return members;
+    }
+
+    private void inviteBatch(String channelId, List<String> userIds,
+                             AtomicInteger invited, AtomicInteger inviteCalls, Map<String, String> failures) {
+        String error;
+        try {
+            error = invite(channelId, userIds, inviteCalls);
+        } catch (IOException | SlackApiException | ResponseStatusException e) {
+            // Transport errors and rate limiting affect the whole call, so retrying per user would not help
+            userIds.forEach(userId -> failures.put(userId, String.valueOf(e.getMessage())));
+            return;
+        }
+        if (error == null) {
+            invited.addAndGet(userIds.size());
+            return;
+        }
+        if (userIds.size() == 1) {
+            // Joined since the member list was read
+            if ("already_in_channel".equals(error)) {
+                return;
             }
-            throw e;
+            failures.put(userIds.get(0), error);
+            return;
+        }
+        // Slack rejects the whole call when any one user cannot be invited, so find the ones that can
+        log.debug("Invite of {} users to channel {} failed with {}, retrying individually", userIds.size(), channelId, error);
+        for (String userId : userIds) {
+            inviteBatch(channelId, Collections.singletonList(userId), invited, inviteCalls, failures);
         }
     }
 
+    // Returns null on success, otherwise the Slack error
+    private String invite(String channelId, List<String> userIds, AtomicInteger inviteCalls)
+            throws IOException, SlackApiException {
+        inviteCalls.incrementAndGet();
+        ConversationsInviteResponse response = slackApiClient.call(Methods.CONVERSATIONS_INVITE,
+                methods -> methods.conversationsInvite(ConversationsInviteRequest.builder()
+                        .channel(channelId)
+                        .users(userIds)
+                        .build()));
+        return response.isOk() ? null : response.getError();
+    }
+
+    @Override
+    public List<com.slack.api.model.User> getAllWorkspaceUsers() throws IOException, SlackApiException {
+        log.debug("Getting all workspace users");
+        return slackUserDirectory.getAllUsers().stream()
+                .filter(user -> !user.isBot() && !user.isDeleted())
+                .collect(Collectors.toList());
+    }
+
     @Override
     public com.slack.api.model.User getSlackUserById(String userId) throws IOException, SlackApiException {
-        try {
-            log.debug("Getting Slack user by ID: {}", userId);
-            
-            MethodsClient methods = slack.methods(botToken);
-            
-            UsersListResponse response = methods.usersList(UsersListRequest.builder().build());
-            
-            if (!response.isOk()) {
-                log.error("Failed to get users: {}", response.getError());
-                throw new RuntimeException("Failed to get users: " + response.getError());
-            }
-            
-            List<com.slack.api.model.User> members = response.getMembers();
-            if (members == null) {
-                log.warn("Received null members list from Slack API");
-                throw new RuntimeException("Received null members list from Slack API");
-            }
-            
-            Optional<com.slack.api.model.User> user = members.stream()
-                    .filter(u -> u.getId().equals(userId))
-                    .findFirst();
-            
-            if (user.isEmpty()) {
-                log.error("User not found with ID: {}", userId);
-                throw new RuntimeException("User not found with ID: " + userId);
-            }
-            
-            return user.get();
-        } catch (SlackApiException e) {
-            if (e.getResponse().code() == 429) {
-                throw new ResponseStatusException(
-                    HttpStatus.TOO_MANY_REQUESTS,
-                    "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience."
-                );
-            }
-            throw e;
+        log.debug("Getting Slack user by ID: {}", userId);
+        
+        Optional<com.slack.api.model.User> user = slackUserDirectory.findById(userId);
+        
+        if (user.isEmpty()) {
+            log.error("User not found with ID: {}", userId);
+            throw new RuntimeException("User not found with ID: " + userId);
         }
+        
+        return user.get();
     }
 
     @Override
     public com.slack.api.model.User getSlackUserByUsername(String username) throws IOException, SlackApiException {
-        try {
-            log.debug("Getting Slack user by username: {}", username);
-            
-            MethodsClient methods = slack.methods(botToken);
-            
-            UsersListResponse response = methods.usersList(UsersListRequest.builder().build());
-            
-            if (!response.isOk()) {
-                log.error("Failed to get users: {}", response.getError());
-                throw new RuntimeException("Failed to get users: " + response.getError());
-            }
-            
-            List<com.slack.api.model.User> members = response.getMembers();
-            if (members == null) {
-                log.warn("Received null members list from Slack API");
-                throw new RuntimeException("Received null members list from Slack API");
-            }
-            
-            // Remove @ if present in username
-            String cleanUsername = username.startsWith("@") ? username.substring(1) : username;
-            
-            Optional<com.slack.api.model.User> user = members.stream()
-                    .filter(u -> u.getName().equals(cleanUsername))
-                    .findFirst();
-            
-            if (user.isEmpty()) {
-                log.error("User not found with username: {}", username);
-                throw new RuntimeException("User not found with username: " + username);
-            }
-            
-            return user.get();
-        } catch (SlackApiException e) {
-            if (e.getResponse().code() == 429) {
-                throw new ResponseStatusException(
-                    HttpStatus.TOO_MANY_REQUESTS,
-                    "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience."
-                );
-            }
-            throw e;
+        log.debug("Getting Slack user by username: {}", username);
+        
+        // Remove @ if present in username
+        String cleanUsername = username.startsWith("@") ? username.substring(1) : username;
+        
+        Optional<com.slack.api.model.User> user = slackUserDirectory.findByUsername(cleanUsername);
+        
+        if (user.isEmpty()) {
+            log.error("User not found with username: {}", username);
+            throw new RuntimeException("User not found with username: " + username);
         }
+        
+        return user.get();
     }
 
     @Override
@@ -308,36 +343,14 @@ public class SlackServiceImpl implements SlackService {
         return SlashCommandResponse.builder().text(":x: " + error).responseType("ephemeral").build();
     }
 
-    private <T> T callWithRetry(Callable<T> apiCall) throws IOException, SlackApiException {
-        int maxRetries = 3;
-        long retryDelayMs = 1000; // Start with 1 second
-        
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try {
-                return apiCall.call();
-            } catch (SlackApiException e) {
-                if (e.getResponse().code() == 429 && attempt < maxRetries) {
-                    try {
-                        Thread.sleep(retryDelayMs * (long)Math.pow(2, attempt));
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new ResponseStatusException(
-                            HttpStatus.TOO_MANY_REQUESTS,
-                            "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience."
-                        );
-                    }
-                } else if (e.getResponse().code() == 429) {
-                    throw new ResponseStatusException(
-                        HttpStatus.TOO_MANY_REQUESTS,
-                        "You have reached the rate limit of Slack. Please wait a second and try again. Thank you for your patience."
-                    );
-                } else {
-                    throw e;
-                }
-            } catch (Exception e) {
-                throw new IOException(e);
-            }
+    @Override
+    public void respond(String responseUrl, SlashCommandResponse response) throws IOException {
+        log.debug("Sending delayed slash command response to {}", responseUrl);
+        // Slack expects snake_case fields such as response_type on response_url payloads
+        WebhookResponse webhookResponse = slack.send(responseUrl, GsonFactory.createSnakeCase().toJson(response));
+        if (webhookResponse.getCode() != 200) {
+            log.error("Failed to send slash command response: {} {}", webhookResponse.getCode(), webhookResponse.getBody());
+            throw new IOException("Failed to send slash command response: " + webhookResponse.getCode());
         }
-        throw new IOException("Max retries exceeded");
     }
 } 
\ No newline at end of file
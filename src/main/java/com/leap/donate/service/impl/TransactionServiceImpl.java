@@ -12,6 +12,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -48,6 +50,37 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.save(transaction);
     }
 
+    @Override
+    @Transactional
+    public List<Transaction> createTransactions(
+        User sender, 
+        List<User> recipients, 
+        int amount, 
+        String message
+    ) {
+        log.debug(
+            "Creating {} transactions: sender={}, amount={}",
+            recipients.size(), 
+            sender.getUsername(), 
+            amount
+        );
+        
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Saved together so Hibernate sends the inserts as one JDBC batch
+        List<Transaction> transactions = recipients.stream()
+            .map(recipient -> Transaction.builder()
+                .sender(sender)
+                .recipient(recipient)
+                .amount(amount)
+                .message(message)
+                .createdAt(now)
+                .build())
+            .collect(Collectors.toList());
+        
+        return transactionRepository.saveAll(transactions);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<Transaction> getTransactionsBySender(User sender, Pageable pageable) {
@@ -106,10 +139,4 @@ public class TransactionServiceImpl implements TransactionService {
         log.debug("Getting transactions by date range: from {} to {}", start, end);
         return transactionRepository.findAllByCreatedAtBetween(start, end, pageable);
     }
-
-    @Override
-    public boolean hasRecentTransactions(String userId, int count) {
-        LocalDateTime recentTime = LocalDateTime.now().minusMinutes(5);
-        return transactionRepository.countBySenderIdAndCreatedAtAfter(userId, recentTime) >= count;
-    }
 } 
\ No newline at end of file
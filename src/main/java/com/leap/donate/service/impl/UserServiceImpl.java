@@ -2,28 +2,67 @@ package com.leap.donate.service.impl;
 
 import com.leap.donate.model.User;
 import com.leap.donate.repository.UserRepository;
+import com.leap.donate.service.Leaderboard;
 import com.leap.donate.service.UserService;
-import lombok.RequiredArgsConstructor;
+import com.leap.donate.service.utils.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Keeps a bounded, expiring cache of users by Slack ID in front of the users table, so
+ * resolving an unchanged sender or recipient needs no database round trip. Every write
+ * goes through the cache, and entries expire so changes made elsewhere (another instance,
+ * an admin in the database) are picked up within {@code app.user-cache.ttl-ms}.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final Leaderboard leaderboard;
+    private final long ttlMs;
+    private final Map<String, CachedUser> cache;
+    private final Counter hits;
+    private final Counter misses;
+
+    public UserServiceImpl(UserRepository userRepository, Leaderboard leaderboard, MeterRegistry meterRegistry,
+                           @Value("${app.user-cache.max-size:10000}") int maxSize,
+                           @Value("${app.user-cache.ttl-ms:300000}") long ttlMs) {
+        this.userRepository = userRepository;
+        this.leaderboard = leaderboard;
+        this.ttlMs = ttlMs;
+        // Least recently used users are evicted once the map is full
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedUser> eldest) {
+                return size() > maxSize;
+            }
+        });
+        this.hits = meterRegistry.counter("users.cache", "result", "hit");
+        this.misses = meterRegistry.counter("users.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("users.cache.size", Collections.emptyList(), cache);
+    }
 
     @Override
     @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        cacheAfterCommit(saved);
+        TransactionUtils.afterCommit(() -> leaderboard.updateUser(saved));
+        return saved;
     }
 
     @Override
@@ -61,17 +100,25 @@ public class UserServiceImpl implements UserService {
     public User getOrCreateUserFromSlack(String userId, String username, String realName, String slackId) {
         log.debug("Getting or creating user from Slack: ID={}, username={}", slackId, username);
         
+        // Unchanged users are served from the cache
+        User cached = cached(slackId);
+        if (cached != null && !profileChanged(cached, username, realName)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        
         // First try to find by slackId
         Optional<User> existingUser = userRepository.findBySlackId(slackId);
         if (existingUser.isPresent()) {
             User user = existingUser.get();
             // Update user information if needed
-            if (!username.equals(user.getUsername()) || 
-                (realName != null && !realName.equals(user.getRealName()))) {
+            if (profileChanged(user, username, realName)) {
                 user.setUsername(username);
                 user.setRealName(realName);
-                return userRepository.save(user);
+                return saveUser(user);
             }
+            cacheAfterCommit(user);
             return user;
         }
 
@@ -85,6 +132,95 @@ public class UserServiceImpl implements UserService {
             .createdAt(LocalDateTime.now())
             .build();
 
-        return userRepository.save(newUser);
+        User saved = userRepository.save(newUser);
+        cacheAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Applies a profile change from a Slack user_change event to a known user. A user deleted
+     * in Slack is deactivated; reactivation stays a manual decision.
+     */
+    @Override
+    @Transactional
+    public Optional<User> updateFromSlackProfile(String slackId, String username, String realName, boolean deleted) {
+        evictUser(slackId);
+        Optional<User> existingUser = userRepository.findBySlackId(slackId);
+        if (existingUser.isEmpty()) {
+            return Optional.empty();
+        }
+        User user = existingUser.get();
+        boolean deactivate = deleted && user.getStatus() != User.UserStatus.DEACTIVATED;
+        if (!profileChanged(user, username, realName) && !deactivate) {
+            cacheAfterCommit(user);
+            return existingUser;
+        }
+        if (username != null) {
+            user.setUsername(username);
+        }
+        if (realName != null) {
+            user.setRealName(realName);
+        }
+        if (deactivate) {
+            log.info("Deactivating user {} deleted in Slack", slackId);
+            user.setStatus(User.UserStatus.DEACTIVATED);
+        }
+        return Optional.of(saveUser(user));
+    }
+
+    @Override
+    public void evictUser(String slackId) {
+        if (slackId != null) {
+            cache.remove(slackId);
+        }
+    }
+
+    private User cached(String slackId) {
+        CachedUser entry = cache.get(slackId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.cachedAt >= ttlMs) {
+            cache.remove(slackId, entry);
+            return null;
+        }
+        // Each caller gets its own copy, so setters on it cannot change what others are served
+        return copyOf(entry.user);
+    }
+
+    // Only committed state is cached, so a rolled-back write never leaks into other commands.
+    // The entity is copied now; later changes to it by the caller are not part of that state.
+    private void cacheAfterCommit(User user) {
+        if (user.getSlackId() == null) {
+            return;
+        }
+        User snapshot = copyOf(user);
+        TransactionUtils.afterCommit(() -> cache.put(snapshot.getSlackId(), new CachedUser(snapshot, System.currentTimeMillis())));
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .realName(user.getRealName())
+                .createdAt(user.getCreatedAt())
+                .slackId(user.getSlackId())
+                .status(user.getStatus())
+                .build();
+    }
+
+    private static boolean profileChanged(User user, String username, String realName) {
+        return (username != null && !username.equals(user.getUsername()))
+                || (realName != null && !Objects.equals(realName, user.getRealName()));
+    }
+
+    private static final class CachedUser {
+        private final User user;
+        private final long cachedAt;
+
+        private CachedUser(User user, long cachedAt) {
+            this.user = user;
+            this.cachedAt = cachedAt;
+        }
     }
 } 
\ No newline at end of file
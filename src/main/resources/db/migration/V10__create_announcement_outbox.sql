@@ -0,0 +1,16 @@
+-- Donation announcements are written here in the donation transaction
+-- and delivered to Slack by a background dispatcher
+CREATE TABLE announcement_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    channel_id VARCHAR(50),
+    message TEXT NOT NULL,
+    status VARCHAR(10) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    sent_at TIMESTAMP
+);
+
+-- Dispatcher polls pending rows in due order
+CREATE INDEX idx_announcement_outbox_pending ON announcement_outbox(next_attempt_at) WHERE status = 'PENDING';
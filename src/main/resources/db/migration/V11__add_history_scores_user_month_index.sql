@@ -0,0 +1,2 @@
+-- Supports the idempotency check when archiving a month's scores
+CREATE INDEX IF NOT EXISTS idx_history_scores_user_month_year ON history_scores(user_id, month, year);
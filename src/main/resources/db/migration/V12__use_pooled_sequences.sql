@@ -0,0 +1,34 @@
+-- Switch generated IDs from per-row IDENTITY/BIGSERIAL to pooled sequences so
+-- Hibernate can allocate IDs in blocks of 50 and batch INSERT statements.
+-- Sequences start one block above the current maximum ID, and column defaults
+-- point at them so native inserts keep working.
+
+CREATE SEQUENCE transactions_seq INCREMENT BY 50;
+SELECT setval('transactions_seq', COALESCE((SELECT MAX(id) FROM transactions), 0) + 50);
+ALTER TABLE transactions ALTER COLUMN id SET DEFAULT nextval('transactions_seq');
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+DROP SEQUENCE IF EXISTS transactions_id_seq;
+
+CREATE SEQUENCE current_scores_seq INCREMENT BY 50;
+SELECT setval('current_scores_seq', COALESCE((SELECT MAX(id) FROM current_scores), 0) + 50);
+ALTER TABLE current_scores ALTER COLUMN id SET DEFAULT nextval('current_scores_seq');
+ALTER SEQUENCE current_scores_seq OWNED BY current_scores.id;
+DROP SEQUENCE IF EXISTS current_scores_id_seq;
+
+CREATE SEQUENCE remaining_points_seq INCREMENT BY 50;
+SELECT setval('remaining_points_seq', COALESCE((SELECT MAX(id) FROM remaining_points), 0) + 50);
+ALTER TABLE remaining_points ALTER COLUMN id SET DEFAULT nextval('remaining_points_seq');
+ALTER SEQUENCE remaining_points_seq OWNED BY remaining_points.id;
+DROP SEQUENCE IF EXISTS remaining_points_id_seq;
+
+CREATE SEQUENCE history_scores_seq INCREMENT BY 50;
+SELECT setval('history_scores_seq', COALESCE((SELECT MAX(id) FROM history_scores), 0) + 50);
+ALTER TABLE history_scores ALTER COLUMN id SET DEFAULT nextval('history_scores_seq');
+ALTER SEQUENCE history_scores_seq OWNED BY history_scores.id;
+DROP SEQUENCE IF EXISTS history_scores_id_seq;
+
+CREATE SEQUENCE announcement_outbox_seq INCREMENT BY 50;
+SELECT setval('announcement_outbox_seq', COALESCE((SELECT MAX(id) FROM announcement_outbox), 0) + 50);
+ALTER TABLE announcement_outbox ALTER COLUMN id SET DEFAULT nextval('announcement_outbox_seq');
+ALTER SEQUENCE announcement_outbox_seq OWNED BY announcement_outbox.id;
+DROP SEQUENCE IF EXISTS announcement_outbox_id_seq;
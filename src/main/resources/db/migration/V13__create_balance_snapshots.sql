@@ -0,0 +1,14 @@
+-- Per-user monthly totals folded from the transactions ledger up to cutoff_at.
+-- In append-only ledger mode a balance is the snapshot plus the transactions since its cutoff.
+CREATE TABLE balance_snapshots (
+    user_id VARCHAR(255) NOT NULL REFERENCES users(id),
+    month INTEGER NOT NULL,
+    year INTEGER NOT NULL,
+    received INTEGER NOT NULL DEFAULT 0,
+    spent INTEGER NOT NULL DEFAULT 0,
+    cutoff_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (user_id, month, year)
+);
+
+CREATE INDEX idx_balance_snapshots_month_year ON balance_snapshots(month, year);
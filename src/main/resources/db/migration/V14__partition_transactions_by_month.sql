@@ -0,0 +1,62 @@
+-- Range-partition transactions by month of created_at so month-scoped queries prune to the
+-- partitions they need and maintenance only has to touch the current month.
+-- Partitions are named transactions_pYYYY_MM; TransactionPartitionService keeps creating
+-- them ahead of time. Rows outside every partition land in transactions_default.
+
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+ALTER TABLE transactions_unpartitioned RENAME CONSTRAINT transactions_pkey TO transactions_unpartitioned_pkey;
+DROP INDEX IF EXISTS idx_transactions_sender;
+DROP INDEX IF EXISTS idx_transactions_recipient;
+DROP INDEX IF EXISTS idx_transactions_created_at;
+DROP INDEX IF EXISTS idx_transactions_sender_created;
+DROP INDEX IF EXISTS idx_transactions_recipient_created;
+
+-- The partition key has to be part of the primary key
+CREATE TABLE transactions (
+    id BIGINT NOT NULL DEFAULT nextval('transactions_seq'),
+    sender_id VARCHAR(255) NOT NULL,
+    recipient_id VARCHAR(255) NOT NULL,
+    amount INTEGER NOT NULL,
+    message TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT transactions_pkey PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_transactions_sender FOREIGN KEY (sender_id) REFERENCES users(id),
+    CONSTRAINT fk_transactions_recipient FOREIGN KEY (recipient_id) REFERENCES users(id)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- One partition per month from the oldest transaction up to three months ahead
+DO $$
+DECLARE
+    partition_month DATE;
+    last_month DATE := date_trunc('month', NOW()) + INTERVAL '3 months';
+BEGIN
+    SELECT COALESCE(date_trunc('month', MIN(created_at)), date_trunc('month', NOW()))
+    INTO partition_month
+    FROM transactions_unpartitioned;
+
+    WHILE partition_month <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_p' || to_char(partition_month, 'YYYY_MM'),
+                       partition_month,
+                       partition_month + INTERVAL '1 month');
+        partition_month := partition_month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transactions (id, sender_id, recipient_id, amount, message, created_at)
+SELECT id, sender_id, recipient_id, amount, message, created_at
+FROM transactions_unpartitioned;
+
+-- The sequence would be dropped along with the old table while it still owns it
+ALTER SEQUENCE transactions_seq OWNED BY NONE;
+DROP TABLE transactions_unpartitioned;
+ALTER SEQUENCE transactions_seq OWNED BY transactions.id;
+
+-- Created on the parent after the copy; each partition gets its own copy of these indexes
+CREATE INDEX idx_transactions_created_at ON transactions(created_at);
+CREATE INDEX idx_transactions_sender_created ON transactions(sender_id, created_at);
+CREATE INDEX idx_transactions_recipient_created ON transactions(recipient_id, created_at);
+
+ANALYZE transactions;
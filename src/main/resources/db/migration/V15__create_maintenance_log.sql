@@ -0,0 +1,16 @@
+-- One row per action taken by IndexMaintenanceService: what it touched, why, and how long it took
+CREATE TABLE maintenance_log (
+    id BIGSERIAL PRIMARY KEY,
+    run_id VARCHAR(36) NOT NULL,
+    action VARCHAR(20) NOT NULL,
+    target VARCHAR(255) NOT NULL,
+    reason TEXT,
+    outcome VARCHAR(10) NOT NULL,
+    error TEXT,
+    bytes_before BIGINT,
+    bytes_after BIGINT,
+    started_at TIMESTAMP NOT NULL,
+    duration_ms BIGINT NOT NULL
+);
+
+CREATE INDEX idx_maintenance_log_started_at ON maintenance_log(started_at);
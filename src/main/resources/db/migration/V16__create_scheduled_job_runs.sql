@@ -0,0 +1,17 @@
+-- History of scheduled job runs across instances. run_key identifies the period a job covers
+-- (e.g. the month for the rollover); a job succeeds at most once per key.
+CREATE TABLE scheduled_job_runs (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    run_key VARCHAR(50),
+    instance_id VARCHAR(255) NOT NULL,
+    status VARCHAR(10) NOT NULL,
+    started_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    finished_at TIMESTAMP,
+    duration_ms BIGINT,
+    error TEXT
+);
+
+CREATE UNIQUE INDEX idx_scheduled_job_runs_succeeded ON scheduled_job_runs(job_name, run_key)
+    WHERE status = 'SUCCEEDED' AND run_key IS NOT NULL;
+CREATE INDEX idx_scheduled_job_runs_job_started ON scheduled_job_runs(job_name, started_at);
@@ -0,0 +1,75 @@
+package com.leap.donate.config;
+
+import com.leap.donate.PostgresContainerTest;
+import com.leap.donate.service.SlackApiClient;
+import com.leap.donate.service.SlackService;
+import com.leap.donate.service.SlackWarmUpService;
+import com.slack.api.methods.Methods;
+import com.slack.api.methods.response.users.UsersListResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+// The mocked Slack API answers nothing, so every warm-up attempt fails until users.list is stubbed
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "slack.bot-token=xoxb-test",
+        "slack.signing-secret=test-secret",
+        "slack.app-token=xapp-test",
+        "app.warm-up.retry-base-delay-ms=50",
+        "app.warm-up.retry-max-delay-ms=100"
+})
+class WarmUpReadinessConfigTest extends PostgresContainerTest {
+
+    private static final String READINESS = "/actuator/health/readiness";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private SlackWarmUpService slackWarmUpService;
+
+    @MockBean
+    private SlackApiClient slackApiClient;
+
+    @MockBean
+    private SlackService slackService;
+
+    @Test
+    void readinessIsOutOfServiceUntilWarmUpSucceeds() throws Exception {
+        // Several attempts fail while the app is up and Boot itself already accepts traffic
+        Thread.sleep(500);
+        assertThat(slackWarmUpService.isWarm()).isFalse();
+        ResponseEntity<Map> refused = restTemplate.getForEntity(READINESS, Map.class);
+        assertThat(refused.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(refused.getBody()).containsEntry("status", "OUT_OF_SERVICE");
+        assertThat(restTemplate.getForEntity("/actuator/health/liveness", Map.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+
+        UsersListResponse users = new UsersListResponse();
+        users.setOk(true);
+        users.setMembers(List.of());
+        when(slackApiClient.<UsersListResponse>call(eq(Methods.USERS_LIST), any())).thenReturn(users);
+        when(slackService.createOrGetDonateChannel()).thenReturn("C0DONATE");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!slackWarmUpService.isWarm() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        ResponseEntity<Map> accepted = restTemplate.getForEntity(READINESS, Map.class);
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(accepted.getBody()).containsEntry("status", "UP");
+    }
+}
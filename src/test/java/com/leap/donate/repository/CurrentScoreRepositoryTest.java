@@ -0,0 +1,127 @@
+package com.leap.donate.repository;
+
+import com.leap.donate.PostgresContainerTest;
+import com.leap.donate.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CurrentScoreRepositoryTest extends PostgresContainerTest {
+
+    @Autowired
+    private CurrentScoreRepository currentScoreRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private int month;
+    private int year;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        YearMonth currentMonth = YearMonth.now();
+        month = currentMonth.getMonthValue();
+        year = currentMonth.getYear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM current_scores");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void firstScoreOfTheMonthCreatesTheRow() {
+        User recipient = createUser("recipient");
+
+        assertThat(addScore(recipient, 7)).isEqualTo(7);
+        assertThat(storedScore(recipient)).isEqualTo(7);
+    }
+
+    @Test
+    void laterScoresAreAddedToTheRow() {
+        User recipient = createUser("recipient");
+        addScore(recipient, 7);
+
+        assertThat(addScore(recipient, 3)).isEqualTo(10);
+        assertThat(storedScore(recipient)).isEqualTo(10);
+    }
+
+    @Test
+    void concurrentAdditionsAreNotLost() throws Exception {
+        User recipient = createUser("recipient");
+        int additions = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(additions);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < additions; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return addScore(recipient, 2);
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(storedScore(recipient)).isEqualTo(additions * 2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Integer addScore(User recipient, int points) {
+        return transactionTemplate.execute(status ->
+                currentScoreRepository.upsertAddScore(recipient.getId(), points, month, year));
+    }
+
+    private Integer storedScore(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT score FROM current_scores WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), month, year);
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username(username)
+                .slackId("U" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,161 @@
+package com.leap.donate.repository;
+
+import com.leap.donate.PostgresContainerTest;
+import com.leap.donate.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each call commits on its own, as it does inside a donation, so concurrent callers really contend
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RemainingPointsRepositoryTest extends PostgresContainerTest {
+
+    private static final int ALLOWANCE = 50;
+
+    @Autowired
+    private RemainingPointsRepository remainingPointsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private int month;
+    private int year;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        YearMonth currentMonth = YearMonth.now();
+        month = currentMonth.getMonthValue();
+        year = currentMonth.getYear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM remaining_points");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void firstDonationOfTheMonthCreatesTheRowFromTheAllowance() {
+        User sender = createUser("sender");
+
+        Optional<Integer> remaining = deduct(sender, 10);
+
+        assertThat(remaining).contains(40);
+        assertThat(storedBalance(sender)).contains(40);
+    }
+
+    @Test
+    void firstDonationAboveTheAllowanceCreatesNoRow() {
+        User sender = createUser("sender");
+
+        Optional<Integer> remaining = deduct(sender, ALLOWANCE + 1);
+
+        assertThat(remaining).isEmpty();
+        assertThat(storedBalance(sender)).isEmpty();
+    }
+
+    @Test
+    void deductionIsRefusedWhenTheBalanceIsTooLow() {
+        User sender = createUser("sender");
+        deduct(sender, 45);
+
+        Optional<Integer> remaining = deduct(sender, 10);
+
+        assertThat(remaining).isEmpty();
+        assertThat(storedBalance(sender)).contains(5);
+    }
+
+    @Test
+    void deductionMaySpendTheWholeBalance() {
+        User sender = createUser("sender");
+        deduct(sender, 45);
+
+        assertThat(deduct(sender, 5)).contains(0);
+        assertThat(deduct(sender, 1)).isEmpty();
+        assertThat(storedBalance(sender)).contains(0);
+    }
+
+    @Test
+    void concurrentDeductionsNeverOverdraw() throws Exception {
+        User sender = createUser("sender");
+        int attempts = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Optional<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return deduct(sender, 5);
+                }));
+            }
+            start.countDown();
+
+            Set<Integer> balances = new TreeSet<>();
+            for (Future<Optional<Integer>> result : results) {
+                result.get(30, TimeUnit.SECONDS).ifPresent(balances::add);
+            }
+
+            // Exactly ten deductions of 5 fit in 50, each seeing a distinct balance
+            assertThat(balances).containsExactly(0, 5, 10, 15, 20, 25, 30, 35, 40, 45);
+            assertThat(storedBalance(sender)).contains(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Optional<Integer> deduct(User sender, int points) {
+        return transactionTemplate.execute(status ->
+                remainingPointsRepository.deductIfSufficient(sender.getId(), points, ALLOWANCE, month, year));
+    }
+
+    private Optional<Integer> storedBalance(User user) {
+        return jdbcTemplate.queryForList(
+                "SELECT remaining_points FROM remaining_points WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), month, year).stream().findFirst();
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username(username)
+                .slackId("U" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
@@ -0,0 +1,253 @@
+package com.leap.donate.service;
+
+import com.leap.donate.PostgresContainerTest;
+import com.leap.donate.model.User;
+import com.leap.donate.repository.UserRepository;
+import com.leap.donate.service.impl.ScoreServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+
+// Donations and rebuilds commit in their own transactions so they really run against each other
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({LedgerService.class, ScoreServiceImpl.class, LedgerServiceTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LedgerServiceTest extends PostgresContainerTest {
+
+    private static final int ALLOWANCE = 50;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private ScoreService scoreService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private Leaderboard leaderboard;
+
+    @MockBean
+    private BalanceCache balanceCache;
+
+    @MockBean
+    private MonthlyRolloverService monthlyRolloverService;
+
+    private TransactionTemplate transactionTemplate;
+    private YearMonth currentMonth;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        currentMonth = YearMonth.now();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM transactions");
+        jdbcTemplate.update("DELETE FROM current_scores");
+        jdbcTemplate.update("DELETE FROM remaining_points");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void donationCommittingDuringRebuildIsNotOverwritten() throws Exception {
+        User sender = createUser("sender");
+        User recipient = createUser("recipient");
+        donate(sender, recipient, 5);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch donationWritten = new CountDownLatch(1);
+        CountDownLatch releaseDonation = new CountDownLatch(1);
+        try {
+            Future<?> donation = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                scoreService.transferPoints(sender, recipient, 3);
+                insertTransaction(sender, recipient, 3);
+                donationWritten.countDown();
+                awaitQuietly(releaseDonation);
+            }));
+            assertThat(donationWritten.await(30, TimeUnit.SECONDS)).isTrue();
+
+            Future<Integer> rebuild = executor.submit(() -> ledgerService.rebuildMonth(currentMonth));
+            Thread.sleep(500);
+            // The rebuild waits for the open donation instead of reading the ledger without it
+            assertThat(rebuild.isDone()).isFalse();
+
+            releaseDonation.countDown();
+            donation.get(30, TimeUnit.SECONDS);
+            assertThat(rebuild.get(30, TimeUnit.SECONDS)).isZero();
+        } finally {
+            releaseDonation.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(storedScore(recipient)).isEqualTo(8);
+        assertThat(storedBalance(sender)).isEqualTo(ALLOWANCE - 8);
+    }
+
+    @Test
+    void concurrentDonationsAndRebuildsKeepBalancesEqualToTheLedger() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            users.add(createUser("user" + i));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(users.size() + 1);
+        AtomicBoolean donating = new AtomicBoolean(true);
+        try {
+            Future<?> rebuilds = executor.submit(() -> {
+                while (donating.get()) {
+                    ledgerService.rebuildMonth(currentMonth);
+                }
+            });
+            List<Future<?>> donations = new ArrayList<>();
+            for (int i = 0; i < users.size(); i++) {
+                User sender = users.get(i);
+                User recipient = users.get((i + 1) % users.size());
+                donations.add(executor.submit(() -> {
+                    for (int n = 0; n < 10; n++) {
+                        donate(sender, recipient, 2);
+                    }
+                }));
+            }
+            for (Future<?> donation : donations) {
+                donation.get(60, TimeUnit.SECONDS);
+            }
+            donating.set(false);
+            rebuilds.get(60, TimeUnit.SECONDS);
+        } finally {
+            donating.set(false);
+            executor.shutdownNow();
+        }
+
+        Map<String, LedgerService.Totals> ledger = ledgerService.totals(
+                users.stream().map(User::getId).collect(Collectors.toList()), currentMonth);
+        for (User user : users) {
+            assertThat(ledger.get(user.getId()).getReceived()).isEqualTo(20);
+            assertThat(ledger.get(user.getId()).getSpent()).isEqualTo(20);
+            assertThat(storedScore(user)).isEqualTo(20);
+            assertThat(storedBalance(user)).isEqualTo(ALLOWANCE - 20);
+        }
+    }
+
+    @Test
+    void rebuildLowersScoresAboveTheLedgerAndReloadsTheLeaderboard() {
+        User sender = createUser("sender");
+        User recipient = createUser("recipient");
+        donate(sender, recipient, 4);
+        jdbcTemplate.update("UPDATE current_scores SET score = 40 WHERE user_id = ?", recipient.getId());
+
+        int changed = scoreService.rebuildBalances(currentMonth);
+
+        assertThat(changed).isEqualTo(1);
+        assertThat(storedScore(recipient)).isEqualTo(4);
+        verify(leaderboard).reload(currentMonth);
+    }
+
+    @Test
+    void totalsForSeveralUsersIncludeUsersWithoutTransactions() {
+        User sender = createUser("sender");
+        User recipient = createUser("recipient");
+        User idle = createUser("idle");
+        donate(sender, recipient, 6);
+
+        Map<String, LedgerService.Totals> totals = ledgerService.totals(
+                List.of(sender.getId(), recipient.getId(), idle.getId()), currentMonth);
+
+        assertThat(totals.get(sender.getId()).getSpent()).isEqualTo(6);
+        assertThat(totals.get(sender.getId()).getReceived()).isZero();
+        assertThat(totals.get(recipient.getId()).getReceived()).isEqualTo(6);
+        assertThat(totals.get(idle.getId()).getReceived()).isZero();
+        assertThat(totals.get(idle.getId()).getSpent()).isZero();
+    }
+
+    // Same order as a real donation: move the points, then record the transaction
+    private void donate(User sender, User recipient, int points) {
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(scoreService.transferPoints(sender, recipient, points)).isPresent();
+            insertTransaction(sender, recipient, points);
+        });
+    }
+
+    private void insertTransaction(User sender, User recipient, int points) {
+        jdbcTemplate.update("INSERT INTO transactions (sender_id, recipient_id, amount, message, created_at) " +
+                "VALUES (?, ?, ?, 'thanks', ?)", sender.getId(), recipient.getId(), points, LocalDateTime.now());
+    }
+
+    private Integer storedScore(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT score FROM current_scores WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), currentMonth.getMonthValue(), currentMonth.getYear());
+    }
+
+    private Integer storedBalance(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT remaining_points FROM remaining_points WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), currentMonth.getMonthValue(), currentMonth.getYear());
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username(username)
+                .slackId("U" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.leap.donate.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DonationCommandParserTest {
+
+    @Test
+    void parsesPlainMention() {
+        DonateServiceImpl.DonationCommand command = DonationCommandParser.parse("@alice 5 thanks for the help");
+
+        assertThat(ids(command)).containsExactly((String) null);
+        assertThat(usernames(command)).containsExactly("alice");
+        assertThat(command.getPoints()).isEqualTo(5);
+        assertThat(command.getMessage()).isEqualTo("thanks for the help");
+    }
+
+    @Test
+    void parsesEscapedMentionWithName() {
+        DonateServiceImpl.DonationCommand command = DonationCommandParser.parse("<@U123ABC|alice> 3 great demo");
+
+        assertThat(ids(command)).containsExactly("U123ABC");
+        assertThat(usernames(command)).containsExactly("alice");
+        assertThat(command.getPoints()).isEqualTo(3);
+        assertThat(command.getMessage()).isEqualTo("great demo");
+    }
+
+    @Test
+    void escapedMentionWithoutNameUsesTheId() {
+        DonateServiceImpl.DonationCommand command = DonationCommandParser.parse("<@W42> 1 thanks");
+
+        assertThat(ids(command)).containsExactly("W42");
+        assertThat(usernames(command)).containsExactly("W42");
+    }
+
+    @Test
+    void parsesMultipleRecipientsOfBothKinds() {
+        DonateServiceImpl.DonationCommand command =
+                DonationCommandParser.parse("<@U1|alice> @bob.smith\t<@U3> 2 team effort");
+
+        assertThat(ids(command)).containsExactly("U1", null, "U3");
+        assertThat(usernames(command)).containsExactly("alice", "bob.smith", "U3");
+        assertThat(command.getPoints()).isEqualTo(2);
+        assertThat(command.getMessage()).isEqualTo("team effort");
+    }
+
+    @Test
+    void trimsSurroundingWhitespaceButKeepsTheMessageAsWritten() {
+        DonateServiceImpl.DonationCommand command = DonationCommandParser.parse("  @alice   4   well  done \n");
+
+        assertThat(command.getPoints()).isEqualTo(4);
+        assertThat(command.getMessage()).isEqualTo("well  done");
+    }
+
+    @Test
+    void rejectsGluedMentions() {
+        assertThat(DonationCommandParser.parse("<@U1|alice><@U2|bob> 2 thanks")).isNull();
+        assertThat(DonationCommandParser.parse("@alice@bob 2 thanks")).isNull();
+    }
+
+    @Test
+    void rejectsAmountGluedToMention() {
+        assertThat(DonationCommandParser.parse("<@U1|alice>2 thanks")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedMentions() {
+        assertThat(DonationCommandParser.parse("<@> 2 thanks")).isNull();
+        assertThat(DonationCommandParser.parse("<@U1|alice 2 thanks")).isNull();
+        assertThat(DonationCommandParser.parse("<@u1> 2 thanks")).isNull();
+        assertThat(DonationCommandParser.parse("@ 2 thanks")).isNull();
+    }
+
+    @Test
+    void rejectsTextWithoutRecipientAmountOrMessage() {
+        assertThat(DonationCommandParser.parse(null)).isNull();
+        assertThat(DonationCommandParser.parse("")).isNull();
+        assertThat(DonationCommandParser.parse("5 thanks")).isNull();
+        assertThat(DonationCommandParser.parse("@alice thanks")).isNull();
+        assertThat(DonationCommandParser.parse("@alice 5")).isNull();
+        assertThat(DonationCommandParser.parse("@alice 5   ")).isNull();
+        assertThat(DonationCommandParser.parse("@alice 5thanks")).isNull();
+        assertThat(DonationCommandParser.parse("@alice -5 thanks")).isNull();
+    }
+
+    @Test
+    void rejectsZeroPoints() {
+        assertThatThrownBy(() -> DonationCommandParser.parse("@alice 0 thanks"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Coins must be greater than 0.");
+    }
+
+    @Test
+    void acceptsIntegerMaxValue() {
+        DonateServiceImpl.DonationCommand command = DonationCommandParser.parse("@alice 2147483647 thanks");
+
+        assertThat(command.getPoints()).isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void rejectsPointsAboveIntegerMaxValue() {
+        assertThatThrownBy(() -> DonationCommandParser.parse("@alice 2147483648 thanks"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid coins value. Must be a number.");
+        assertThatThrownBy(() -> DonationCommandParser.parse("@alice 99999999999999999999999 thanks"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Invalid coins value. Must be a number.");
+    }
+
+    private static List<String> ids(DonateServiceImpl.DonationCommand command) {
+        return command.getRecipients().stream()
+                .map(DonateServiceImpl.Recipient::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> usernames(DonateServiceImpl.DonationCommand command) {
+        return command.getRecipients().stream()
+                .map(DonateServiceImpl.Recipient::getUsername)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,146 @@
+package com.leap.donate.service.impl;
+
+import com.leap.donate.PostgresContainerTest;
+import com.leap.donate.model.User;
+import com.leap.donate.repository.UserRepository;
+import com.leap.donate.service.BalanceCache;
+import com.leap.donate.service.Leaderboard;
+import com.leap.donate.service.LedgerService;
+import com.leap.donate.service.MonthlyRolloverService;
+import com.leap.donate.service.ScoreService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Transfers run in the service's own transactions so the after-commit updates fire
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ScoreServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ScoreServiceImplTest extends PostgresContainerTest {
+
+    @Autowired
+    private ScoreService scoreService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private Leaderboard leaderboard;
+
+    @MockBean
+    private BalanceCache balanceCache;
+
+    @MockBean
+    private LedgerService ledgerService;
+
+    @MockBean
+    private MonthlyRolloverService monthlyRolloverService;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM current_scores");
+        jdbcTemplate.update("DELETE FROM remaining_points");
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void firstDonationOfTheMonthStartsFromTheAllowance() {
+        User sender = createUser("sender");
+        User recipient = createUser("recipient");
+
+        Optional<Integer> remaining = scoreService.transferPoints(sender, recipient, 10);
+
+        assertThat(remaining).contains(40);
+        assertThat(storedBalance(sender)).isEqualTo(40);
+        assertThat(storedScore(recipient)).isEqualTo(10);
+        verify(leaderboard).recordScore(recipient, YearMonth.now(), 10);
+    }
+
+    @Test
+    void multiRecipientTransferDeductsTheTotalOnceAndAddsEveryScore() {
+        User sender = createUser("sender");
+        User first = createUser("first");
+        User second = createUser("second");
+        User third = createUser("third");
+        scoreService.transferPoints(createUser("other"), second, 4);
+
+        Optional<Integer> remaining = scoreService.transferPoints(sender, List.of(first, second, third), 5);
+
+        assertThat(remaining).contains(35);
+        assertThat(storedBalance(sender)).isEqualTo(35);
+        assertThat(storedScore(first)).isEqualTo(5);
+        assertThat(storedScore(second)).isEqualTo(9);
+        assertThat(storedScore(third)).isEqualTo(5);
+        verify(leaderboard).recordScore(first, YearMonth.now(), 5);
+        verify(leaderboard).recordScore(second, YearMonth.now(), 9);
+        verify(leaderboard).recordScore(third, YearMonth.now(), 5);
+    }
+
+    @Test
+    void multiRecipientTransferIsRefusedWhenTheTotalExceedsTheBalance() {
+        User sender = createUser("sender");
+        User first = createUser("first");
+        User second = createUser("second");
+        scoreService.transferPoints(sender, first, 30);
+
+        Optional<Integer> remaining = scoreService.transferPoints(sender, List.of(first, second), 11);
+
+        assertThat(remaining).isEmpty();
+        assertThat(storedBalance(sender)).isEqualTo(20);
+        assertThat(storedScore(first)).isEqualTo(30);
+        assertThat(scoreRows(second)).isZero();
+        verify(leaderboard, never()).recordScore(any(), any(), anyInt());
+    }
+
+    private Integer storedBalance(User user) {
+        YearMonth currentMonth = YearMonth.now();
+        return jdbcTemplate.queryForObject(
+                "SELECT remaining_points FROM remaining_points WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), currentMonth.getMonthValue(), currentMonth.getYear());
+    }
+
+    private Integer storedScore(User user) {
+        YearMonth currentMonth = YearMonth.now();
+        return jdbcTemplate.queryForObject(
+                "SELECT score FROM current_scores WHERE user_id = ? AND month = ? AND year = ?",
+                Integer.class, user.getId(), currentMonth.getMonthValue(), currentMonth.getYear());
+    }
+
+    private Integer scoreRows(User user) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM current_scores WHERE user_id = ?", Integer.class, user.getId());
+    }
+
+    private User createUser(String username) {
+        return userRepository.save(User.builder()
+                .id(UUID.randomUUID().toString())
+                .username(username)
+                .slackId("U" + UUID.randomUUID().toString().substring(0, 8).toUpperCase())
+                .status(User.UserStatus.ACTIVE)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}